@@ -0,0 +1,133 @@
+package com.dsa.etl.export.th.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Latency of reading one extraction chunk at increasing depths into a year of export_th:
+// the LIMIT/OFFSET query the ETL used to page with vs the keyset chunk it uses now (the
+// planning seek for the chunk's upper id plus the id range read). Offset cost should grow
+// with depth while keyset stays flat. Needs a loaded export_th:
+//   -Djmh.args="ChunkPaging -jvmArgs -Dbench.jdbc.url=jdbc:mysql://localhost:3306/export_th -Dbench.year=2567"
+// (bench.jdbc.user / bench.jdbc.password default to the application.properties values)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ChunkPagingBenchmark {
+    private static final String COLUMNS = "id, country, hs2dg, description_hs2dg, hs4dg, " +
+            "description_hs4dg, thaip_value, dollar_value, size, month, year";
+    // The removed ExportThRepository.findByYearWithPagination (SELECT *, same columns)
+    private static final String OFFSET_CHUNK_SQL = "SELECT " + COLUMNS + " FROM export_th " +
+            "WHERE year = ? LIMIT ? OFFSET ?";
+    // ExportThRepository.findChunkUpperIdByYear
+    private static final String CHUNK_UPPER_ID_SQL = "SELECT MAX(t.id) FROM (SELECT id FROM export_th " +
+            "WHERE year = ? AND id > ? ORDER BY id LIMIT ?) t";
+    // ExportThJdbcReader.streamByYearInIdRange
+    private static final String KEYSET_CHUNK_SQL = "SELECT " + COLUMNS + " FROM export_th " +
+            "WHERE year = ? AND id > ? AND id <= ? ORDER BY id";
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        // Position of the chunk as a fraction of the year's rows
+        @Param({"0", "0.25", "0.5", "0.75", "0.95"})
+        double depth;
+
+        @Param({"5000"})
+        int chunkSize;
+
+        String year;
+        Connection conn;
+        int offset;
+        long afterId;
+
+        @Setup
+        public void connect() throws SQLException {
+            String url = System.getProperty("bench.jdbc.url");
+            if (url == null) {
+                throw new IllegalStateException("Set -Dbench.jdbc.url to run ChunkPagingBenchmark");
+            }
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                    System.getProperty("bench.jdbc.user", "root"),
+                    System.getProperty("bench.jdbc.password", "12345678"));
+            year = System.getProperty("bench.year", "2567");
+            conn = dataSource.getConnection();
+
+            long rows = queryLong("SELECT COUNT(*) FROM export_th WHERE year = ?", year);
+            if (rows <= chunkSize) {
+                throw new IllegalStateException("Year " + year + " has only " + rows + " rows");
+            }
+            offset = (int) Math.min((long) (rows * depth), rows - chunkSize);
+            // The id the keyset chunk continues after, found once outside the measurement
+            afterId = offset == 0 ? 0 : queryLong("SELECT id FROM export_th WHERE year = ? " +
+                    "ORDER BY id LIMIT 1 OFFSET " + (offset - 1), year);
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            conn.close();
+        }
+
+        private long queryLong(String sql, String param) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, param);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long offsetChunk(Database state, Blackhole bh) throws SQLException {
+        try (PreparedStatement stmt = state.conn.prepareStatement(OFFSET_CHUNK_SQL)) {
+            stmt.setString(1, state.year);
+            stmt.setInt(2, state.chunkSize);
+            stmt.setInt(3, state.offset);
+            return consume(stmt, bh);
+        }
+    }
+
+    @Benchmark
+    public long keysetChunk(Database state, Blackhole bh) throws SQLException {
+        long toId;
+        try (PreparedStatement stmt = state.conn.prepareStatement(CHUNK_UPPER_ID_SQL)) {
+            stmt.setString(1, state.year);
+            stmt.setLong(2, state.afterId);
+            stmt.setInt(3, state.chunkSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                toId = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement stmt = state.conn.prepareStatement(KEYSET_CHUNK_SQL)) {
+            stmt.setString(1, state.year);
+            stmt.setLong(2, state.afterId);
+            stmt.setLong(3, toId);
+            return consume(stmt, bh);
+        }
+    }
+
+    // Reads every column, as the ETL does
+    private static long consume(PreparedStatement stmt, Blackhole bh) throws SQLException {
+        long rows = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    bh.consume(rs.getObject(i));
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,276 @@
+package com.dsa.etl.export.th.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Latency under concurrent load for the fact query API of a running app (e.g. loaded by the
+// bench profile). Not a JMH benchmark: a plain main that lives here for the profile's classpath.
+//   ./mvnw -Pbenchmark compile exec:java -Dexec.mainClass=com.dsa.etl.export.th.benchmark.FactApiLoadTest \
+//       -Dload.concurrency=32 -Dload.duration=60 -Dload.mix=facts=4,summary=3,topCountries=2,topHs2=1
+// Other settings: load.baseUrl, load.year, load.warmup (seconds), load.rate (total requests/sec,
+// 0 = as fast as possible), load.output, load.baseline (an earlier report to compare p50/p99 with).
+// With load.rate set, latency is measured from each request's scheduled send time, so requests
+// held back by a stalled one are not under-reported (coordinated omission).
+public class FactApiLoadTest {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private final int year = Integer.getInteger("load.year", 2567);
+    private final int concurrency = Integer.getInteger("load.concurrency", 16);
+    private final int warmupSeconds = Integer.getInteger("load.warmup", 10);
+    private final int durationSeconds = Integer.getInteger("load.duration", 60);
+    private final double rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+    private final int factPages = Integer.getInteger("load.factPages", 50);
+    private final String output = System.getProperty("load.output", "target/api-load.json");
+    private final String baseline = System.getProperty("load.baseline");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Endpoint> endpoints = parseMix(System.getProperty("load.mix",
+            "facts=4,summary=3,topCountries=2,topHs2=1"));
+    private final int totalWeight = endpoints.stream().mapToInt(endpoint -> endpoint.weight).sum();
+
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    public static void main(String[] args) throws Exception {
+        new FactApiLoadTest().run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Load test %s: %d workers, %ds warm-up, %ds measured, rate %s, mix %s%n", baseUrl,
+                concurrency, warmupSeconds, durationSeconds, rate > 0 ? rate + "/s" : "unbounded", endpoints);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(this::workLoop);
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        // Drop the warm-up samples
+        endpoints.forEach(endpoint -> endpoint.recorder.reset());
+        endpoints.forEach(endpoint -> endpoint.errors.reset());
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        long elapsedNanos = System.nanoTime() - start;
+        List<EndpointReport> reports = endpoints.stream()
+                .map(endpoint -> endpoint.report(elapsedNanos))
+                .toList();
+        stopped = true;
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+
+        Report report = new Report(Instant.now().toString(), baseUrl, year, concurrency, durationSeconds, rate,
+                reports);
+        print(report);
+        Path outputPath = Path.of(output);
+        if (outputPath.getParent() != null) {
+            Files.createDirectories(outputPath.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputPath.toFile(), report);
+        System.out.println("Report written to " + outputPath.toAbsolutePath());
+        if (baseline != null) {
+            compare(report, Path.of(baseline));
+        }
+    }
+
+    private void workLoop() {
+        // Each worker sends its share of the total rate on a fixed schedule
+        long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+        long next = System.nanoTime();
+        while (!stopped) {
+            if (intervalNanos > 0) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            Endpoint endpoint = pick();
+            // Latency counts from the scheduled send time, so queueing behind a slow request shows up
+            long sent = intervalNanos > 0 ? next : System.nanoTime();
+            boolean ok = call(endpoint);
+            endpoint.recorder.recordValue(Math.min((System.nanoTime() - sent) / 1000, MAX_LATENCY_MICROS));
+            next += intervalNanos;
+            if (!ok && measuring) {
+                endpoint.errors.increment();
+            }
+        }
+    }
+
+    private boolean call(Endpoint endpoint) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path(this)))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+            return false;
+        }
+    }
+
+    private Endpoint pick() {
+        int target = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            target -= endpoint.weight;
+            if (target < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static List<Endpoint> parseMix(String mix) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight > 0) {
+                endpoints.add(new Endpoint(parts[0].trim(), weight));
+            }
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no endpoint with a positive weight: " + mix);
+        }
+        return endpoints;
+    }
+
+    private static void print(Report report) {
+        System.out.printf("%n%-14s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointReport endpoint : report.getEndpoints()) {
+            System.out.printf("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.getName(), endpoint.getRequests(), endpoint.getErrors(), endpoint.getRequestsPerSecond(),
+                    endpoint.getP50Millis(), endpoint.getP95Millis(), endpoint.getP99Millis(),
+                    endpoint.getP999Millis(), endpoint.getMaxMillis());
+        }
+    }
+
+    private void compare(Report report, Path baselinePath) throws IOException {
+        JsonNode previous = objectMapper.readTree(baselinePath.toFile());
+        Map<String, JsonNode> byName = new HashMap<>();
+        previous.path("endpoints").forEach(node -> byName.put(node.path("name").asText(), node));
+
+        System.out.printf("%nAgainst %s:%n%-14s %22s %22s %16s%n", baselinePath, "endpoint", "p50 ms", "p99 ms", "req/s");
+        for (EndpointReport endpoint : report.getEndpoints()) {
+            JsonNode old = byName.get(endpoint.getName());
+            if (old == null) {
+                continue;
+            }
+            System.out.printf("%-14s %9.2f -> %9.2f  %9.2f -> %9.2f  %7.1f -> %7.1f%n", endpoint.getName(),
+                    old.path("p50Millis").asDouble(), endpoint.getP50Millis(),
+                    old.path("p99Millis").asDouble(), endpoint.getP99Millis(),
+                    old.path("requestsPerSecond").asDouble(), endpoint.getRequestsPerSecond());
+        }
+    }
+
+    private static final class Endpoint {
+        final String name;
+        final int weight;
+        final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        // Recorder intervals are drained here; only the measured window is kept
+        private final Histogram measured = new Histogram(MAX_LATENCY_MICROS, 3);
+
+        Endpoint(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        String path(FactApiLoadTest test) {
+            return switch (name) {
+                case "facts" -> "/api/facts?size=20&year=" + test.year
+                        + "&page=" + ThreadLocalRandom.current().nextInt(test.factPages);
+                case "summary" -> "/api/facts/summary/" + test.year;
+                case "topCountries" -> "/api/facts/top-countries/" + test.year;
+                case "topHs2" -> "/api/facts/top-hs2/" + test.year;
+                default -> throw new IllegalArgumentException("Unknown endpoint in load.mix: " + name
+                        + " (facts, summary, topCountries, topHs2)");
+            };
+        }
+
+        EndpointReport report(long elapsedNanos) {
+            measured.add(recorder.getIntervalHistogram());
+            long requests = measured.getTotalCount();
+            ByteBuffer encoded = ByteBuffer.allocate(measured.getNeededByteBufferCapacity());
+            int length = measured.encodeIntoCompressedByteBuffer(encoded);
+            return new EndpointReport(name, requests, errors.sum(),
+                    requests * 1e9 / elapsedNanos,
+                    millis(measured.getMean()),
+                    millis(measured.getValueAtPercentile(50)),
+                    millis(measured.getValueAtPercentile(90)),
+                    millis(measured.getValueAtPercentile(95)),
+                    millis(measured.getValueAtPercentile(99)),
+                    millis(measured.getValueAtPercentile(99.9)),
+                    millis(measured.getMaxValue()),
+                    Base64.getEncoder().encodeToString(Arrays.copyOf(encoded.array(), length)));
+        }
+
+        private static double millis(double micros) {
+            return Math.round(micros) / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + weight;
+        }
+    }
+
+    @Value
+    public static class Report {
+        String finishedAt;
+        String baseUrl;
+        int year;
+        int concurrency;
+        int durationSeconds;
+        double rate;
+        List<EndpointReport> endpoints;
+    }
+
+    @Value
+    public static class EndpointReport {
+        String name;
+        long requests;
+        long errors;
+        double requestsPerSecond;
+        double meanMillis;
+        double p50Millis;
+        double p90Millis;
+        double p95Millis;
+        double p99Millis;
+        double p999Millis;
+        double maxMillis;
+        // Compressed HdrHistogram (microseconds), base64; decode with Histogram.decodeFromCompressedByteBuffer
+        String histogram;
+    }
+}
@@ -0,0 +1,123 @@
+package com.dsa.etl.export.th.benchmark;
+
+import com.dsa.etl.export.th.repository.FactCubeRepository;
+import com.dsa.etl.export.th.service.FactCubeSlice;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Top-countries latency: cube scan vs the SQL behind the JPQL summary queries.
+// The synthetic* benchmarks need nothing; the db* ones read one year from MySQL:
+//   -Djmh.args="FactCube -jvmArgs -Dbench.jdbc.url=jdbc:mysql://localhost:3306/export_th -Dbench.year=2567"
+// (bench.jdbc.user / bench.jdbc.password default to the application.properties values)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FactCubeBenchmark {
+    // The query FactExportThRepository.findTopCountriesByValue ran over the facts
+    private static final String FACT_TOP_COUNTRIES_SQL = "SELECT c.country, SUM(f.thaip_value) AS total, COUNT(*) " +
+            "FROM fact_export_th f JOIN dim_country c ON f.country_id = c.country_id " +
+            "WHERE f.year = ? GROUP BY c.country ORDER BY total DESC LIMIT 10";
+    // FactAggregateRepository.findTopCountriesByValue
+    private static final String AGG_TOP_COUNTRIES_SQL = "SELECT c.country, SUM(a.total_thaip_value) AS total, " +
+            "SUM(a.record_count) FROM agg_export_th_hs2 a JOIN dim_country c ON a.country_id = c.country_id " +
+            "WHERE a.year = ? GROUP BY c.country ORDER BY total DESC LIMIT 10";
+
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+        @Param({"100000", "1000000"})
+        int rows;
+
+        FactCubeSlice slice;
+
+        @Setup
+        public void build() {
+            Random random = new Random(42);
+            FactCubeSlice.Builder builder = FactCubeSlice.builder(2567);
+            for (int month = 1; month <= 12; month++) {
+                for (int i = 0; i < rows / 12; i++) {
+                    long value = random.nextInt(10_000_000);
+                    builder.add(month, 1L + random.nextInt(220), 1L + random.nextInt(97),
+                            1L + random.nextInt(1200), value, value / 33, 1);
+                }
+            }
+            slice = builder.build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        int year;
+        Connection conn;
+        FactCubeSlice slice;
+
+        @Setup
+        public void connect() throws SQLException {
+            String url = System.getProperty("bench.jdbc.url");
+            if (url == null) {
+                throw new IllegalStateException("Set -Dbench.jdbc.url to run the db* benchmarks");
+            }
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                    System.getProperty("bench.jdbc.user", "root"),
+                    System.getProperty("bench.jdbc.password", "12345678"));
+            year = Integer.getInteger("bench.year", 2567);
+            conn = dataSource.getConnection();
+
+            FactCubeSlice.Builder builder = FactCubeSlice.builder(year);
+            new FactCubeRepository(dataSource).streamYear(year, builder::add);
+            slice = builder.build();
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            conn.close();
+        }
+    }
+
+    @Benchmark
+    public FactCubeSlice.Groups syntheticCubeTopCountries(Synthetic state) {
+        return state.slice.sumByCountry(0);
+    }
+
+    @Benchmark
+    public FactCubeSlice.Groups syntheticCubeMonthTotals(Synthetic state) {
+        return state.slice.totals(6);
+    }
+
+    @Benchmark
+    public FactCubeSlice.Groups dbCubeTopCountries(Database state) {
+        return state.slice.sumByCountry(0);
+    }
+
+    @Benchmark
+    public void dbFactSqlTopCountries(Database state, Blackhole bh) throws SQLException {
+        query(state, FACT_TOP_COUNTRIES_SQL, bh);
+    }
+
+    @Benchmark
+    public void dbAggregateSqlTopCountries(Database state, Blackhole bh) throws SQLException {
+        query(state, AGG_TOP_COUNTRIES_SQL, bh);
+    }
+
+    private static void query(Database state, String sql, Blackhole bh) throws SQLException {
+        try (PreparedStatement stmt = state.conn.prepareStatement(sql)) {
+            stmt.setInt(1, state.year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bh.consume(rs.getString(1));
+                    bh.consume(rs.getBigDecimal(2));
+                    bh.consume(rs.getLong(3));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.dsa.etl.export.th.benchmark;
+
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+import com.dsa.etl.export.th.service.DimensionLookup;
+import com.dsa.etl.export.th.service.FactMapper;
+import com.dsa.etl.export.th.service.ValueParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-row cost of the transform stage on generated export_th rows: the whole FactMapper.map
+// and its parts (value parsing, dimension lookups, month/year parsing). Scores are rows/sec;
+// add -prof gc for the bytes allocated per row (gc.alloc.rate.norm):
+//   ./mvnw -o -Pbenchmark compile exec:exec -Djmh.args="Transform -prof gc"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransformBenchmark {
+    private static final int ROWS = 4096;
+    private static final String[] COUNTRIES = {
+            "สหรัฐอเมริกา", "จีน", "ญี่ปุ่น", "เวียดนาม", "มาเลเซีย", "ออสเตรเลีย", "อินโดนีเซีย", "ฮ่องกง",
+            "สิงคโปร์", "อินเดีย", "ฟิลิปปินส์", "เกาหลีใต้", "กัมพูชา", "สปป.ลาว", "เมียนมา", "ไต้หวัน",
+            "เนเธอร์แลนด์", "เยอรมนี", "สหราชอาณาจักร", "สหรัฐอาหรับเอมิเรตส์", "ซาอุดีอาระเบีย", "แคนาดา",
+            "เม็กซิโก", "บราซิล", "แอฟริกาใต้", "ฝรั่งเศส", "อิตาลี", "เบลเยียม", "นิวซีแลนด์", "บังกลาเทศ"};
+    private static final String[] SIZES = {"SMALL", "MEDIUM", "LARGE"};
+
+    private final ValueParser parser = new ValueParser();
+    private final FactMapper mapper = new FactMapper(parser);
+
+    private ExportThRow[] rows;
+    private DimensionLookup lookup;
+    // The HashMap lookups mapToFact used before DimensionLookup, as a baseline
+    private Map<String, Long> countryMap;
+    private Map<Integer, Long> hs2Map;
+    private Map<Integer, Long> hs4Map;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(42);
+        List<DimHs2Entity> hs2Rows = new ArrayList<>();
+        List<DimHs4Entity> hs4Rows = new ArrayList<>();
+        List<DimCountryEntity> countryRows = new ArrayList<>();
+        countryMap = new HashMap<>();
+        hs2Map = new HashMap<>();
+        hs4Map = new HashMap<>();
+
+        long id = 1;
+        for (String country : COUNTRIES) {
+            countryRows.add(new DimCountryEntity(id, country));
+            countryMap.put(country, id++);
+        }
+        for (int hs2dg = 1; hs2dg <= 97; hs2dg++) {
+            DimHs2Entity hs2 = new DimHs2Entity();
+            hs2.setHs2Id(id);
+            hs2.setHs2dg(hs2dg);
+            hs2Rows.add(hs2);
+            hs2Map.put(hs2dg, id++);
+            for (int sub = 1; sub <= 12; sub++) {
+                DimHs4Entity hs4 = new DimHs4Entity();
+                hs4.setHs4Id(id);
+                hs4.setHs4dg(hs2dg * 100 + sub);
+                hs4Rows.add(hs4);
+                hs4Map.put(hs2dg * 100 + sub, id++);
+            }
+        }
+        lookup = DimensionLookup.of(hs2Rows, hs4Rows, countryRows);
+
+        rows = new ExportThRow[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            int hs2dg = 1 + random.nextInt(97);
+            // Long-tailed values as in the source: mostly small shipments, a few very large ones
+            long satang = (long) Math.pow(10, 2 + random.nextDouble() * 9);
+            rows[i] = new ExportThRow(i + 1,
+                    COUNTRIES[random.nextInt(COUNTRIES.length)],
+                    hs2dg, "HS2 " + hs2dg,
+                    hs2dg * 100 + 1 + random.nextInt(12), "HS4 " + hs2dg,
+                    formatBaht(satang),
+                    formatBaht(satang / 33),
+                    SIZES[random.nextInt(SIZES.length)],
+                    String.valueOf(1 + random.nextInt(12)),
+                    "2567");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapToFact(Blackhole bh) {
+        for (ExportThRow row : rows) {
+            bh.consume(mapper.map(row, lookup));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseValues(Blackhole bh) {
+        for (ExportThRow row : rows) {
+            BigDecimal thaip = parser.parse(row.getThaipValue());
+            BigDecimal dollar = parser.parse(row.getDollarValue());
+            bh.consume(thaip);
+            bh.consume(dollar);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void dimensionLookup(Blackhole bh) {
+        for (ExportThRow row : rows) {
+            bh.consume(lookup.countryId(row.getCountry()));
+            bh.consume(lookup.hs2Id(row.getHs2dg()));
+            bh.consume(lookup.hs4Id(row.getHs4dg()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void dimensionHashMap(Blackhole bh) {
+        for (ExportThRow row : rows) {
+            bh.consume(countryMap.get(row.getCountry()));
+            bh.consume(hs2Map.get(row.getHs2dg()));
+            bh.consume(hs4Map.get(row.getHs4dg()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseMonthYear(Blackhole bh) {
+        for (ExportThRow row : rows) {
+            bh.consume(Integer.parseInt(row.getMonth()));
+            bh.consume(Integer.parseInt(row.getYear()));
+        }
+    }
+
+    // "1,234,567.89" from an amount in satang
+    private static String formatBaht(long satang) {
+        return String.format(Locale.US, "%,d.%02d", satang / 100, satang % 100);
+    }
+}
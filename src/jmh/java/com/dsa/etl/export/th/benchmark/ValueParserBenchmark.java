@@ -0,0 +1,45 @@
+package com.dsa.etl.export.th.benchmark;
+
+import com.dsa.etl.export.th.service.ValueParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Regex cleanup (the old parseValue) vs the single-scan ValueParser on thaip_value / dollar_value shapes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueParserBenchmark {
+
+    @Param({"1,234,567.89", "25,000", "0.00", " 98,765.40 ", "12,345,678,901.25", "452.7", ""})
+    private String value;
+
+    private final ValueParser parser = new ValueParser();
+
+    @Benchmark
+    public BigDecimal regex() {
+        if (value == null || value.trim().isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        String cleaned = value.replaceAll("[^\\d.]", "");
+        try {
+            return new BigDecimal(cleaned);
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal singleScan() {
+        return parser.parse(value);
+    }
+
+    @Benchmark
+    public long singleScanScaled() {
+        return parser.parseScaled(value, 2);
+    }
+}
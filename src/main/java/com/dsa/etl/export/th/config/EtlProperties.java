@@ -0,0 +1,67 @@
+package com.dsa.etl.export.th.config;
+
+import com.dsa.etl.export.th.model.enums.ETLMode;
+import com.dsa.etl.export.th.model.enums.FactSinkType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "etl")
+@Data
+public class EtlProperties {
+    // How transformed fact batches are written
+    private FactSinkType factSink = FactSinkType.JDBC_BATCH;
+
+    private Pipeline pipeline = new Pipeline();
+
+    private PushDown pushDown = new PushDown();
+
+    private AllYears allYears = new AllYears();
+
+    private Bench bench = new Bench();
+
+    // reader -> transformer -> writer stages connected by bounded queues
+    @Data
+    public static class Pipeline {
+        private int readers = 2;
+        private int transformers = 2;
+        private int writers = 4;
+        private int batchSize = 5000;
+        // batches each queue can hold before the upstream stage blocks
+        private int queueCapacity = 8;
+    }
+
+    // PUSH_DOWN mode: month partitions loaded by concurrent INSERT ... SELECT statements
+    @Data
+    public static class PushDown {
+        private int parallelism = 4;
+    }
+
+    // All-years TWO_PASS: one job per year, several years loaded at once
+    @Data
+    public static class AllYears {
+        // years loaded concurrently; 0 sizes it from the connection pool
+        private int parallelism = 0;
+        // pool connections left for the API and bookkeeping when sizing automatically
+        private int reservedConnections = 4;
+    }
+
+    // bench profile: synthetic export_th rows and the end-to-end throughput runs over them
+    @Data
+    public static class Bench {
+        private long rows = 1_000_000;
+        // Buddhist-era years the rows are spread over
+        private List<Integer> years = List.of(2565, 2566, 2567);
+        private long seed = 42;
+        // regenerate even when export_th already holds the requested number of rows
+        private boolean regenerate = false;
+        // modes run per year through ETLService; TWO_PASS and SINGLE_PASS also run through ETLServiceAll
+        private List<ETLMode> modes = List.of(ETLMode.TWO_PASS, ETLMode.SINGLE_PASS, ETLMode.PUSH_DOWN);
+        private boolean includeAll = true;
+        private String output = "target/etl-bench.json";
+        private boolean exitWhenDone = true;
+    }
+}
@@ -4,41 +4,54 @@ import com.dsa.etl.export.th.model.entities.DimCountryEntity;
 import com.dsa.etl.export.th.model.entities.DimHs2Entity;
 import com.dsa.etl.export.th.model.entities.DimHs4Entity;
 import com.dsa.etl.export.th.model.entities.FactExportThEntity;
-import com.dsa.etl.export.th.repository.DimCountryRepository;
-import com.dsa.etl.export.th.repository.DimHs2Repository;
-import com.dsa.etl.export.th.repository.DimHs4Repository;
 import com.dsa.etl.export.th.repository.FactExportThRepository;
+import com.dsa.etl.export.th.service.DimensionCache;
+import com.dsa.etl.export.th.service.DimensionSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/data")
 @RequiredArgsConstructor
 @Slf4j
 public class DataController {
-    private final DimHs2Repository hs2Repo;
-    private final DimHs4Repository hs4Repo;
-    private final DimCountryRepository countryRepo;
+    private final DimensionCache dimensionCache;
     private final FactExportThRepository factRepo;
 
     // Dimension APIs
+    // Served from the dimension cache; the ETag is the snapshot version, so clients
+    // that send If-None-Match get 304 until an ETL run changes the tables
     @GetMapping("/dimensions/hs2")
-    public ResponseEntity<List<DimHs2Entity>> getAllHs2() {
+    public ResponseEntity<List<DimHs2Entity>> getAllHs2(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get dimensions hs2");
-        return ResponseEntity.ok(hs2Repo.findAll());
+        return cached(ifNoneMatch, DimensionSnapshot::getHs2);
     }
 
     @GetMapping("/dimensions/hs4")
-    public ResponseEntity<List<DimHs4Entity>> getAllHs4() {
-        return ResponseEntity.ok(hs4Repo.findAll());
+    public ResponseEntity<List<DimHs4Entity>> getAllHs4(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cached(ifNoneMatch, DimensionSnapshot::getHs4);
     }
 
     @GetMapping("/dimensions/countries")
-    public ResponseEntity<List<DimCountryEntity>> getAllCountries() {
-        return ResponseEntity.ok(countryRepo.findAll());
+    public ResponseEntity<List<DimCountryEntity>> getAllCountries(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cached(ifNoneMatch, DimensionSnapshot::getCountries);
+    }
+
+    private <T> ResponseEntity<List<T>> cached(String ifNoneMatch, Function<DimensionSnapshot, List<T>> rows) {
+        DimensionSnapshot snapshot = dimensionCache.current();
+        if (snapshot.getETag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(snapshot.getETag()).body(rows.apply(snapshot));
     }
 
 
@@ -1,8 +1,15 @@
 package com.dsa.etl.export.th.controller;
 
 import com.dsa.etl.export.th.model.dto.ETLResponse;
+import com.dsa.etl.export.th.model.dto.ETLStatus;
+import com.dsa.etl.export.th.model.dto.PipelineStats;
+import com.dsa.etl.export.th.model.entities.EtlJobEntity;
+import com.dsa.etl.export.th.model.enums.ETLMode;
 import com.dsa.etl.export.th.service.ETLService;
 import com.dsa.etl.export.th.service.ETLServiceAll;
+import com.dsa.etl.export.th.service.EtlCheckpointService;
+import com.dsa.etl.export.th.service.EtlPipelineFactory;
+import com.dsa.etl.export.th.service.EtlProcessService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -11,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,11 +28,14 @@ import java.util.Map;
 public class ETLController {
     private final ETLService etlService;
     private final ETLServiceAll etlServiceAll;
+    private final EtlPipelineFactory pipelines;
+    private final EtlCheckpointService checkpoints;
+    private final EtlProcessService processService;
 
     @PostMapping("/process/all")
-    public ResponseEntity<String> startETLForAll() {
+    public ResponseEntity<String> startETLForAll(@RequestParam(defaultValue = "TWO_PASS") ETLMode mode) {
         try {
-            etlServiceAll.performETL();
+            etlServiceAll.performETL(mode);
             return ResponseEntity.ok("ETL process completed successfully");
         } catch (Exception e) {
             log.error("ETL process failed", e);
@@ -34,9 +45,10 @@ public class ETLController {
     }
 
     @GetMapping("/process/{year}")
-    public ResponseEntity<ETLResponse> startETLForYear(@PathVariable String year) {
+    public ResponseEntity<ETLResponse> startETLForYear(@PathVariable String year,
+                                                       @RequestParam(defaultValue = "TWO_PASS") ETLMode mode) {
         try {
-            etlService.performETL(year);
+            etlService.performETL(year, mode);
             //etlResponse.builder().message("ETL process completed successfully for year: " + year).status("COMPLETE").build()
 
             return ResponseEntity.ok(ETLResponse.builder().message("ETL process completed successfully for year: " + year)
@@ -50,6 +62,55 @@ public class ETLController {
         }
     }
 
+    // Background runs: returns a process id at once, poll it for progress
+    @PostMapping("/processes")
+    public ResponseEntity<ETLStatus> submitETL(@RequestParam(required = false) String year,
+                                               @RequestParam(defaultValue = "TWO_PASS") ETLMode mode) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(processService.submit(year, mode));
+    }
+
+    @GetMapping("/processes")
+    public ResponseEntity<List<ETLStatus>> getProcesses() {
+        return ResponseEntity.ok(processService.getStatuses());
+    }
+
+    @GetMapping("/processes/{processId}")
+    public ResponseEntity<ETLStatus> getProcess(@PathVariable String processId) {
+        return ResponseEntity.ok(processService.getStatus(processId));
+    }
+
+    @DeleteMapping("/processes/{processId}")
+    public ResponseEntity<ETLStatus> cancelProcess(@PathVariable String processId) {
+        return ResponseEntity.ok(processService.cancel(processId));
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ETLStatus>> getJobs() {
+        return ResponseEntity.ok(checkpoints.getRecentStatuses());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ETLStatus> getJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(checkpoints.getStatus(jobId));
+    }
+
+    // Re-runs the chunks of a two-pass job that are missing or failed
+    @PostMapping("/jobs/{jobId}/resume")
+    public ResponseEntity<ETLStatus> resumeJob(@PathVariable Long jobId) {
+        EtlJobEntity job = checkpoints.getJob(jobId);
+        if (job.getYear() == null) {
+            etlServiceAll.resume(jobId);
+        } else {
+            etlService.resume(jobId);
+        }
+        return ResponseEntity.ok(checkpoints.getStatus(jobId));
+    }
+
+    @GetMapping("/pipelines")
+    public ResponseEntity<List<PipelineStats>> getPipelines() {
+        return ResponseEntity.ok(pipelines.getActiveStats());
+    }
+
     @GetMapping("/status/{year}")
     public ResponseEntity<Map<String, Object>> getETLStatus(@PathVariable String year) {
         log.info("Endpoint Status by year  : {}",year);
@@ -1,27 +1,49 @@
 package com.dsa.etl.export.th.controller;
 
-import com.dsa.etl.export.th.model.dto.FactDetailProjection;
+import com.dsa.etl.export.th.model.dto.FactCursor;
+import com.dsa.etl.export.th.model.dto.FactCursorPage;
 import com.dsa.etl.export.th.model.dto.FactDetailResponse;
 import com.dsa.etl.export.th.model.dto.FactSummaryProjection;
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactExportFormat;
 import com.dsa.etl.export.th.repository.FactExportThRepository;
+import com.dsa.etl.export.th.service.DimensionCache;
+import com.dsa.etl.export.th.service.DimensionSnapshot;
+import com.dsa.etl.export.th.service.FactExportService;
+import com.dsa.etl.export.th.service.FactSummaryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/facts")
 @RequiredArgsConstructor
 @Slf4j
 public class FactController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final FactExportThRepository factRepo;
+    private final DimensionCache dimensionCache;
+    // Summary endpoints read the in-memory cube, or the aggregate tables until it is loaded
+    private final FactSummaryService summaries;
+    private final FactExportService exports;
 
     // 1. Get facts with pagination and filters
     // 1. Get facts with full dimension details
@@ -33,21 +55,88 @@ public class FactController {
             @RequestParam(required = false) Integer month) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<FactDetailProjection> facts = factRepo.findFactsWithDetails(year, month, pageable);
+        Page<FactExportThEntity> facts = factRepo.findFacts(year, month, pageable);
 
-        Page<FactDetailResponse> response = facts.map(this::mapToDetailResponse);
+        // Dimension names are joined in memory against one snapshot instead of in SQL
+        DimensionSnapshot dimensions = dimensionCache.current();
+        Page<FactDetailResponse> response = facts.map(fact -> mapToDetailResponse(fact, dimensions));
         return ResponseEntity.ok(response);
     }
 
-    
+    // 1b. Same rows, keyset-paged: every page costs the same however deep it is
+    @GetMapping("/cursor")
+    public ResponseEntity<FactCursorPage> getFactsByCursor(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) String cursor) {
+
+        // A continuation token carries the filters of the first request
+        FactCursor position = cursor != null ? FactCursor.decode(cursor) : new FactCursor(0, year, month);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+
+        // One extra row tells whether there is a next page without counting
+        List<FactExportThEntity> facts = factRepo.findFactsAfter(position.getYear(), position.getMonth(),
+                position.getAfterId(), PageRequest.of(0, pageSize + 1));
+        boolean hasNext = facts.size() > pageSize;
+        if (hasNext) {
+            facts = facts.subList(0, pageSize);
+        }
+
+        DimensionSnapshot dimensions = dimensionCache.current();
+        String nextCursor = hasNext
+                ? new FactCursor(facts.get(facts.size() - 1).getId(), position.getYear(), position.getMonth()).encode()
+                : null;
+        return ResponseEntity.ok(FactCursorPage.builder()
+                .content(facts.stream().map(fact -> mapToDetailResponse(fact, dimensions)).toList())
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build());
+    }
+
+    // 1c. Full download: rows stream from a database cursor straight to the response
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFacts(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(defaultValue = "NDJSON") FactExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String filename = "facts" + (year != null ? "-" + year : "") + (month != null ? "-" + month : "")
+                + "." + format.getExtension();
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                // Nothing left to finish when the client has gone
+                if (exports.export(year, month, format, compressed) >= 0) {
+                    compressed.finish();
+                }
+            } else {
+                exports.export(year, month, format, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 
     // 2. Get summary statistics by year
     @GetMapping("/summary/year/{year}")
     public ResponseEntity<Map<String, Object>> getYearSummary(@PathVariable Integer year) {
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalThaipValue", factRepo.sumThaipValueByYear(year));
-        summary.put("totalDollarValue", factRepo.sumDollarValueByYear(year));
-        summary.put("recordCount", factRepo.countByYear(year));
+        summary.put("totalThaipValue", summaries.sumThaipValueByYear(year));
+        summary.put("totalDollarValue", summaries.sumDollarValueByYear(year));
+        summary.put("recordCount", summaries.countByYear(year));
         return ResponseEntity.ok(summary);
     }
 
@@ -58,9 +147,9 @@ public class FactController {
             @PathVariable Integer month) {
 
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalThaipValue", factRepo.sumThaipValueByYearAndMonth(year, month));
-        summary.put("totalDollarValue", factRepo.sumDollarValueByYearAndMonth(year, month));
-        summary.put("recordCount", factRepo.countByYearAndMonth(year, month));
+        summary.put("totalThaipValue", summaries.sumThaipValueByYearAndMonth(year, month));
+        summary.put("totalDollarValue", summaries.sumDollarValueByYearAndMonth(year, month));
+        summary.put("recordCount", summaries.countByYearAndMonth(year, month));
         return ResponseEntity.ok(summary);
     }
 
@@ -70,7 +159,7 @@ public class FactController {
             @PathVariable Integer year,
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<Map<String, Object>> topCountries = factRepo.findTopCountriesByValue(year, limit);
+        List<Map<String, Object>> topCountries = summaries.findTopCountriesByValue(year, limit);
         return ResponseEntity.ok(topCountries);
     }
 
@@ -80,7 +169,7 @@ public class FactController {
             @PathVariable Integer year,
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<Map<String, Object>> topHS2 = factRepo.findTopHS2ByValue(year, limit);
+        List<Map<String, Object>> topHS2 = summaries.findTopHS2ByValue(year, limit);
         return ResponseEntity.ok(topHS2);
     }
 
@@ -90,7 +179,7 @@ public class FactController {
             @PathVariable Integer year,
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<FactSummaryProjection> summary = factRepo.findFactSummaryByYear(year, limit);
+        List<FactSummaryProjection> summary = summaries.findFactSummaryByYear(year, limit);
         return ResponseEntity.ok(summary);
     }
 
@@ -102,23 +191,56 @@ public class FactController {
             @RequestParam(defaultValue = "10") int limit) {
 
         List<FactSummaryProjection> summary =
-                factRepo.findFactSummaryByYearAndMonth(year, month, limit);
+                summaries.findFactSummaryByYearAndMonth(year, month, limit);
         return ResponseEntity.ok(summary);
     }
 
-    private FactDetailResponse mapToDetailResponse(FactDetailProjection projection) {
+    // RFC 9110 Accept-Encoding: gzip (or *) with a q-value above 0; an explicit gzip entry wins over *
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.toLowerCase(Locale.ROOT).startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = q;
+            } else if (coding.equals("*")) {
+                anyQ = q;
+            }
+        }
+        return gzipQ != null ? gzipQ > 0 : anyQ != null && anyQ > 0;
+    }
+
+    private FactDetailResponse mapToDetailResponse(FactExportThEntity fact, DimensionSnapshot dimensions) {
+        DimCountryEntity country = dimensions.country(fact.getCountryId());
+        DimHs2Entity hs2 = dimensions.hs2(fact.getHs2Id());
+        DimHs4Entity hs4 = dimensions.hs4(fact.getHs4Id());
         return FactDetailResponse.builder()
-                .factId(projection.getFactId())
-                .country(projection.getCountryName())
-                .hs2Code(String.valueOf(projection.getHs2Code()))
-                .hs2Description(projection.getHs2Description())
-                .hs4Code(String.valueOf(projection.getHs4Code()))
-                .hs4Description(projection.getHs4Description())
-                .thaipValue(projection.getThaipValue())
-                .dollarValue(projection.getDollarValue())
-                .size(projection.getSize())
-                .month(projection.getMonth())
-                .year(projection.getYear())
+                .factId(fact.getId())
+                .country(country != null ? country.getCountry() : null)
+                .hs2Code(String.valueOf(hs2 != null ? hs2.getHs2dg() : null))
+                .hs2Description(hs2 != null ? hs2.getDescription() : null)
+                .hs4Code(String.valueOf(hs4 != null ? hs4.getHs4dg() : null))
+                .hs4Description(hs4 != null ? hs4.getDescription() : null)
+                .thaipValue(fact.getThaipValue())
+                .dollarValue(fact.getDollarValue())
+                .size(fact.getSize())
+                .month(fact.getMonth())
+                .year(fact.getYear())
                 .build();
     }
 }
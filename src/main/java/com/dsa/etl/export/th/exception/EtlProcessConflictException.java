@@ -0,0 +1,8 @@
+package com.dsa.etl.export.th.exception;
+
+// A submitted ETL run would load the same years as one still running; answered with 409
+public class EtlProcessConflictException extends RuntimeException {
+    public EtlProcessConflictException(String message) {
+        super(message);
+    }
+}
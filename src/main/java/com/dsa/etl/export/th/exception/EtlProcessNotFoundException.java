@@ -0,0 +1,8 @@
+package com.dsa.etl.export.th.exception;
+
+// No background ETL process with the requested id (or it was evicted); answered with 404
+public class EtlProcessNotFoundException extends RuntimeException {
+    public EtlProcessNotFoundException(String message) {
+        super(message);
+    }
+}
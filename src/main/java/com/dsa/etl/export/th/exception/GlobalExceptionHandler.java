@@ -18,6 +18,27 @@ public class GlobalExceptionHandler {
                 .body(error);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        ApiErrorResponse error = new ApiErrorResponse("BAD_REQUEST", ex.getMessage(), LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(error);
+    }
+
+    @ExceptionHandler(EtlProcessNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleEtlProcessNotFoundException(EtlProcessNotFoundException ex) {
+        ApiErrorResponse error = new ApiErrorResponse("NOT_FOUND", ex.getMessage(), LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(error);
+    }
+
+    @ExceptionHandler(EtlProcessConflictException.class)
+    public ResponseEntity<ErrorResponse> handleEtlProcessConflictException(EtlProcessConflictException ex) {
+        ApiErrorResponse error = new ApiErrorResponse("CONFLICT", ex.getMessage(), LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         ApiErrorResponse error = new ApiErrorResponse("INTERNAL_ERROR", "An unexpected error occurred", LocalDateTime.now());
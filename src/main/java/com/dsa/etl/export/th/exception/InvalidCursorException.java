@@ -0,0 +1,12 @@
+package com.dsa.etl.export.th.exception;
+
+// A keyset continuation token that could not be decoded; answered with 400
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,23 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class EtlBenchmarkReport {
+    String startedAt;
+    String javaVersion;
+    int availableProcessors;
+    long maxHeapBytes;
+    long sourceRows;
+    long seed;
+    String factSink;
+    int pipelineReaders;
+    int pipelineTransformers;
+    int pipelineWriters;
+    int pipelineBatchSize;
+    List<EtlBenchmarkResult> results;
+}
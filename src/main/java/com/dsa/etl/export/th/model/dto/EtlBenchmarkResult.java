@@ -0,0 +1,21 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+// One measured ETL run of the bench profile
+@Value
+@Builder
+public class EtlBenchmarkResult {
+    String scope;           // "year" (ETLService) or "all" (ETLServiceAll)
+    String mode;
+    Integer year;           // null for scope "all"
+    long rows;              // fact rows present after the run
+    long elapsedMillis;
+    long rowsPerSecond;
+    long peakHeapBytes;     // sum of the heap pools' peaks, an upper bound
+    long gcCount;
+    long gcMillis;
+    boolean succeeded;
+    String error;
+}
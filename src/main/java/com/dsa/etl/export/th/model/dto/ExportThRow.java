@@ -0,0 +1,19 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Value;
+
+// Read-only export_th row for the transform stage, never attached to the EntityManager
+@Value
+public class ExportThRow {
+    long id;
+    String country;
+    Integer hs2dg;
+    String descriptionHs2dg;
+    Integer hs4dg;
+    String descriptionHs4dg;
+    String thaipValue;
+    String dollarValue;
+    String size;
+    String month;
+    String year;
+}
@@ -0,0 +1,40 @@
+package com.dsa.etl.export.th.model.dto;
+
+import com.dsa.etl.export.th.exception.InvalidCursorException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position in a keyset-paged fact listing: the last id returned plus the filters,
+// so a continuation token can't be replayed against a different query. Clients
+// only see the encoded token.
+@Value
+public class FactCursor {
+    long afterId;
+    Integer year;
+    Integer month;
+
+    public String encode() {
+        String raw = afterId + ":" + (year != null ? year : "") + ":" + (month != null ? month : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static FactCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(":", -1);
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new FactCursor(Long.parseLong(parts[0]), parseOptional(parts[1]), parseOptional(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad Base64
+            throw new InvalidCursorException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private static Integer parseOptional(String value) {
+        return value.isEmpty() ? null : Integer.valueOf(value);
+    }
+}
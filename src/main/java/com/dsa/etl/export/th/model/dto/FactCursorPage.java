@@ -0,0 +1,16 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// One keyset page of facts; no total count, nextCursor is null on the last page
+@Data
+@Builder
+public class FactCursorPage {
+    private List<FactDetailResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
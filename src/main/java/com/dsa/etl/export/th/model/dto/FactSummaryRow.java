@@ -0,0 +1,15 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// FactSummaryProjection computed in memory by the fact cube
+@Value
+public class FactSummaryRow implements FactSummaryProjection {
+    String country;
+    String hs2Category;
+    BigDecimal totalThaipValue;
+    BigDecimal totalDollarValue;
+    Long recordCount;
+}
@@ -0,0 +1,10 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Value;
+
+// Key range of export_th rows: (afterId, toId]
+@Value
+public class IdRange {
+    long afterId;
+    long toId;
+}
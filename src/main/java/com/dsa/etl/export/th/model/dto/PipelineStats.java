@@ -0,0 +1,23 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PipelineStats {
+    private String name;
+    private boolean running;
+    private long elapsedMillis;
+    private int rowQueueDepth;
+    private int rowQueueCapacity;
+    private int factQueueDepth;
+    private int factQueueCapacity;
+    private long readRows;
+    private long transformedRows;
+    private long writtenRows;
+    private long failedRows;
+    private long readRowsPerSecond;
+    private long transformRowsPerSecond;
+    private long writeRowsPerSecond;
+}
@@ -0,0 +1,21 @@
+package com.dsa.etl.export.th.model.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+// Outcome of one year of an all-years ETL run
+@Value
+@Builder
+public class YearLoadResult {
+    int year;
+    Long jobId;          // null when the year failed before its job was created
+    int chunks;
+    long rows;
+    long elapsedMillis;
+    long rowsPerSecond;
+    String error;
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dsa.etl.export.th.model.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// fact_export_th summed per year, month, country and HS4; rebuilt per year by FactAggregateService
+@Entity
+@Table(name = "agg_export_th_hs4",
+        indexes = @Index(name = "idx_agg_hs4_year_month", columnList = "year, month"))
+@Data
+public class AggExportThHs4Entity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer year;
+    private Integer month;
+
+    @Column(name = "country_id")
+    private Long countryId;
+
+    @Column(name = "hs4_id")
+    private Long hs4Id;
+
+    @Column(name = "total_thaip_value", precision = 24, scale = 2)
+    private BigDecimal totalThaipValue;
+
+    @Column(name = "total_dollar_value", precision = 24, scale = 2)
+    private BigDecimal totalDollarValue;
+
+    @Column(name = "record_count")
+    private Long recordCount;
+}
@@ -11,8 +11,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class DimCountryEntity {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "dim_country_id")
+    @TableGenerator(name = "dim_country_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "dim_country", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "country_id")
     private Long countryId;
 
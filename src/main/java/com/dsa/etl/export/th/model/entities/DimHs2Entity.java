@@ -4,11 +4,17 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name = "dim_hs2")
+// Named as DimensionUpsertRepository adds it on tables created before the key existed
+@Table(name = "dim_hs2", uniqueConstraints = @UniqueConstraint(name = "uk_dim_hs2_hs2dg", columnNames = "hs2dg"))
 @Data
 public class DimHs2Entity {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "dim_hs2_id")
+    @TableGenerator(name = "dim_hs2_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "dim_hs2", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "hs2_id")  // Make sure this matches your database column name
     private Long hs2Id;
 
@@ -4,11 +4,17 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name = "dim_hs4")
+// Named as DimensionUpsertRepository adds it on tables created before the key existed
+@Table(name = "dim_hs4", uniqueConstraints = @UniqueConstraint(name = "uk_dim_hs4_hs4dg", columnNames = "hs4dg"))
 @Data
 public class DimHs4Entity {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "dim_hs4_id")
+    @TableGenerator(name = "dim_hs4_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "dim_hs4", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "hs4_id")  // Make sure this matches your database column name
     private Long hs4Id;
 
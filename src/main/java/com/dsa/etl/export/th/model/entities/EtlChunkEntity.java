@@ -0,0 +1,56 @@
+package com.dsa.etl.export.th.model.entities;
+
+import com.dsa.etl.export.th.model.dto.IdRange;
+import com.dsa.etl.export.th.model.enums.EtlChunkStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Checkpoint for one key range (afterId, toId] of a job. DONE is written in the
+// same transaction as the range's facts, so a DONE chunk is never loaded twice.
+@Entity
+@Table(name = "etl_chunk",
+        uniqueConstraints = @UniqueConstraint(name = "uk_etl_chunk_range", columnNames = {"job_id", "after_id"}),
+        indexes = @Index(name = "idx_etl_chunk_status", columnList = "job_id, status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EtlChunkEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "chunk_id")
+    private Long chunkId;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "after_id", nullable = false)
+    private long afterId;
+
+    @Column(name = "to_id", nullable = false)
+    private long toId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private EtlChunkStatus status;
+
+    @Column(name = "row_count")
+    private long rowCount;
+
+    private int attempts;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public IdRange toRange() {
+        return new IdRange(afterId, toId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.dsa.etl.export.th.model.entities;
+
+import com.dsa.etl.export.th.model.enums.ETLProcessStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One two-pass ETL run; its key ranges are tracked in etl_chunk
+@Entity
+@Table(name = "etl_job")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EtlJobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Long jobId;
+
+    // null when the job covers all of export_th
+    private String year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private ETLProcessStatus status;
+
+    @Column(name = "total_chunks")
+    private int totalChunks;
+
+    @Column(name = "loaded_rows")
+    private long loadedRows;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+}
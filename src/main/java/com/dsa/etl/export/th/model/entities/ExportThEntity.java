@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 
 
-@Table(name = "export_th", schema = "export_th")
+@Table(name = "export_th", schema = "export_th",
+        indexes = @Index(name = "idx_export_th_year", columnList = "year"))
 @Entity
 @Data
 @NoArgsConstructor
@@ -9,14 +9,22 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "fact_export_th")
+@Table(name = "fact_export_th",
+        // Keyset paging filtered by month; year is the partition key, so this is per year
+        indexes = @Index(name = "idx_fact_month_id", columnList = "month, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class FactExportThEntity {
+    // Ids are handed out in blocks so inserts can be JDBC-batched (IDENTITY disables batching)
+    public static final int ID_ALLOCATION_SIZE = 10000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "fact_export_th_id")
+    @TableGenerator(name = "fact_export_th_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "fact_export_th", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "country_id")
@@ -0,0 +1,27 @@
+package com.dsa.etl.export.th.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Dimension tables and the export_th columns they are built from
+@Getter
+@RequiredArgsConstructor
+public enum DimensionType {
+    HS2(IdSequence.HS2, "hs2dg", "description", "hs2dg", "description_hs2dg"),
+    HS4(IdSequence.HS4, "hs4dg", "description", "hs4dg", "description_hs4dg"),
+    COUNTRY(IdSequence.COUNTRY, "country", null, "country", null);
+
+    private final IdSequence sequence;
+    private final String keyColumn;
+    private final String descriptionColumn;
+    private final String sourceKeyColumn;
+    private final String sourceDescriptionColumn;
+
+    public String getTable() {
+        return sequence.getTable();
+    }
+
+    public String getIdColumn() {
+        return sequence.getIdColumn();
+    }
+}
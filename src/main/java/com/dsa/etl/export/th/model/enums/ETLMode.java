@@ -0,0 +1,8 @@
+package com.dsa.etl.export.th.model.enums;
+
+public enum ETLMode {
+    TWO_PASS,     // extract dimensions first, then read the source again for facts
+    SINGLE_PASS,  // discover dimensions while mapping facts in one scan
+    PUSH_DOWN,    // build facts inside MySQL with INSERT ... SELECT, one statement per month
+    SHADOW        // push-down into a staging table, verify, then swap in the year's partition
+}
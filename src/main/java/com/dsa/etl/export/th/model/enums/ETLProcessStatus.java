@@ -5,5 +5,6 @@ public enum ETLProcessStatus {
     IN_PROGRESS,
     COMPLETED,
     FAILED,
-    PARTIALLY_COMPLETED
+    PARTIALLY_COMPLETED,
+    CANCELLED
 }
@@ -0,0 +1,7 @@
+package com.dsa.etl.export.th.model.enums;
+
+public enum EtlChunkStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.dsa.etl.export.th.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FactExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),   // one JSON object per line
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,7 @@
+package com.dsa.etl.export.th.model.enums;
+
+public enum FactSinkType {
+    JPA,        // factRepo.saveAll
+    JDBC_BATCH, // PreparedStatement batches, no persistence context
+    LOAD_DATA   // LOAD DATA LOCAL INFILE from an in-memory stream
+}
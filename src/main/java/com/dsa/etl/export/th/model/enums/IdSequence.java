@@ -0,0 +1,23 @@
+package com.dsa.etl.export.th.model.enums;
+
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Rows of the id_generator table behind the @TableGenerator ids
+@Getter
+@RequiredArgsConstructor
+public enum IdSequence {
+    FACT("fact_export_th", "fact_export_th", "id", FactExportThEntity.ID_ALLOCATION_SIZE),
+    HS2("dim_hs2", "dim_hs2", "hs2_id", DimHs2Entity.ID_ALLOCATION_SIZE),
+    HS4("dim_hs4", "dim_hs4", "hs4_id", DimHs4Entity.ID_ALLOCATION_SIZE),
+    COUNTRY("dim_country", "dim_country", "country_id", DimCountryEntity.ID_ALLOCATION_SIZE);
+
+    private final String name;
+    private final String table;
+    private final String idColumn;
+    private final int allocationSize;
+}
@@ -0,0 +1,233 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.enums.DimensionType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Set-based dimension maintenance. Missing values are found and inserted by MySQL
+// in one statement per dimension; the unique key on the natural key column makes
+// concurrent loads skip values another load inserted first.
+// Bulk statements join the caller's transaction when there is one; single-value
+// upserts always commit on their own.
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class DimensionUpsertRepository {
+    // Tables holding dimension ids that must follow a merged duplicate
+    private static final String[] FACT_TABLES = {"fact_export_th", "agg_export_th_hs2", "agg_export_th_hs4"};
+
+    // Another load can add values between counting and inserting; retry a few times
+    private static final int MAX_ROUNDS = 5;
+
+    private final DataSource dataSource;
+    private final IdGeneratorRepository idGenerator;
+
+    // Migration: the unique keys on the natural key columns came after rows were already
+    // loaded without them. Hibernate only logs when it cannot add a key over duplicates,
+    // so merge the duplicates into their lowest id first and add the key here.
+    @PostConstruct
+    private void ensureUniqueKeys() {
+        try (Connection conn = dataSource.getConnection()) {
+            for (DimensionType type : DimensionType.values()) {
+                if (!hasUniqueKey(conn, type)) {
+                    mergeDuplicates(conn, type);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error adding unique keys to the dimension tables", e);
+            throw new ETLException("Failed to add dimension unique keys: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean hasUniqueKey(Connection conn, DimensionType type) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? " +
+                "AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1")) {
+            stmt.setString(1, type.getTable());
+            stmt.setString(2, type.getKeyColumn());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private void mergeDuplicates(Connection conn, DimensionType type) throws SQLException {
+        String table = type.getTable();
+        String id = type.getIdColumn();
+        String key = type.getKeyColumn();
+        // Every duplicate id with the id that is kept for its value
+        String merged = "(SELECT d." + id + " AS dup_id, k.keep_id FROM " + table + " d JOIN " +
+                "(SELECT " + key + ", MIN(" + id + ") AS keep_id FROM " + table +
+                " WHERE " + key + " IS NOT NULL GROUP BY " + key + " HAVING COUNT(*) > 1) k " +
+                "ON d." + key + " = k." + key + " WHERE d." + id + " <> k.keep_id) m";
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String factTable : FACT_TABLES) {
+                if (hasColumn(conn, factTable, id)) {
+                    stmt.executeUpdate("UPDATE " + factTable + " f JOIN " + merged +
+                            " ON f." + id + " = m.dup_id SET f." + id + " = m.keep_id");
+                }
+            }
+            int removed = stmt.executeUpdate("DELETE d FROM " + table + " d JOIN " + merged +
+                    " ON d." + id + " = m.dup_id");
+            conn.commit();
+            if (removed > 0) {
+                log.warn("Merged {} duplicate {} rows into the lowest id of their {}", removed, table, key);
+            }
+            // DDL commits on its own
+            stmt.execute("ALTER TABLE " + table + " ADD CONSTRAINT uk_" + table + "_" + key + " UNIQUE (" + key + ")");
+            log.info("Added unique key on {}.{}", table, key);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    // Inserts every value of export_th (one year, or all when year is null) missing
+    // from the dimension table and returns how many rows were added
+    public int upsertFromSource(DimensionType type, String year) {
+        String missing = missingValuesSql(type, year);
+        int added = 0;
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        try {
+            for (int round = 0; round < MAX_ROUNDS; round++) {
+                int count = countMissing(conn, missing, year);
+                if (count == 0) {
+                    break;
+                }
+                // Ids are numbered by MySQL from a block reserved up front; LIMIT keeps
+                // values that appeared since the count from running past the block
+                long firstId = idGenerator.reserve(type.getSequence(), count);
+                added += insertMissing(conn, type, missing, year, firstId, count);
+            }
+            commitIfNeeded(conn);
+        } catch (SQLException e) {
+            log.error("Error upserting {} dimensions", type, e);
+            throw new ETLException("Failed to upsert " + type + " dimensions: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+        return added;
+    }
+
+    // Single value upsert; returns the surrogate key whether the row was inserted or already there.
+    // Runs in autocommit on its own connection, never in the caller's transaction: a long
+    // REPEATABLE READ snapshot would not see a row another load committed since it began, and
+    // the caller would hold the dimension row locks until its end.
+    public long upsert(DimensionType type, Object key, String description) {
+        long id = idGenerator.reserve(type.getSequence(), 1);
+        String insert = type.getDescriptionColumn() != null
+                ? "INSERT IGNORE INTO " + type.getTable() + " (" + type.getIdColumn() + ", " + type.getKeyColumn() +
+                ", " + type.getDescriptionColumn() + ") VALUES (?, ?, ?)"
+                : "INSERT IGNORE INTO " + type.getTable() + " (" + type.getIdColumn() + ", " + type.getKeyColumn() +
+                ") VALUES (?, ?)";
+        String select = "SELECT " + type.getIdColumn() + " FROM " + type.getTable() +
+                " WHERE " + type.getKeyColumn() + " = ?";
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(true);
+            try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                stmt.setLong(1, id);
+                stmt.setObject(2, key);
+                if (type.getDescriptionColumn() != null) {
+                    stmt.setString(3, description);
+                }
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                stmt.setObject(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new ETLException(type + " dimension not found after upsert: " + key);
+                    }
+                    id = rs.getLong(1);
+                }
+            }
+            return id;
+        } catch (SQLException e) {
+            log.error("Error upserting {} dimension {}", type, key, e);
+            throw new ETLException("Failed to upsert " + type + " dimension: " + e.getMessage(), e);
+        }
+    }
+
+    // Distinct source values without a dimension row; the first description wins as before
+    private String missingValuesSql(DimensionType type, String year) {
+        String description = type.getSourceDescriptionColumn() != null
+                ? ", MIN(" + type.getSourceDescriptionColumn() + ") AS description"
+                : "";
+        return "FROM (SELECT " + type.getSourceKeyColumn() + " AS dim_key" + description +
+                " FROM export_th WHERE " + type.getSourceKeyColumn() + " IS NOT NULL" +
+                (year != null ? " AND year = ?" : "") +
+                " GROUP BY " + type.getSourceKeyColumn() + ") s" +
+                " LEFT JOIN " + type.getTable() + " d ON d." + type.getKeyColumn() + " = s.dim_key" +
+                " WHERE d." + type.getIdColumn() + " IS NULL";
+    }
+
+    private int countMissing(Connection conn, String missing, String year) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) " + missing)) {
+            if (year != null) {
+                stmt.setString(1, year);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private int insertMissing(Connection conn, DimensionType type, String missing, String year,
+                              long firstId, int limit) throws SQLException {
+        boolean described = type.getDescriptionColumn() != null;
+        String sql = "INSERT IGNORE INTO " + type.getTable() +
+                " (" + type.getIdColumn() + ", " + type.getKeyColumn() +
+                (described ? ", " + type.getDescriptionColumn() : "") + ")" +
+                " SELECT ? + ROW_NUMBER() OVER (ORDER BY s.dim_key) - 1, s.dim_key" +
+                (described ? ", s.description " : " ") +
+                missing + " ORDER BY s.dim_key LIMIT ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            stmt.setLong(i++, firstId);
+            if (year != null) {
+                stmt.setString(i++, year);
+            }
+            stmt.setInt(i, limit);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private void commitIfNeeded(Connection conn) throws SQLException {
+        if (!DataSourceUtils.isConnectionTransactional(conn, dataSource) && !conn.getAutoCommit()) {
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.model.entities.EtlChunkEntity;
+import com.dsa.etl.export.th.model.enums.EtlChunkStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EtlChunkRepository extends JpaRepository<EtlChunkEntity, Long> {
+
+    List<EtlChunkEntity> findByJobIdAndStatusNotOrderByAfterId(Long jobId, EtlChunkStatus status);
+
+    long countByJobIdAndStatus(Long jobId, EtlChunkStatus status);
+
+    @Query("SELECT COALESCE(SUM(c.rowCount), 0) FROM EtlChunkEntity c WHERE c.jobId = :jobId AND c.status = :status")
+    long sumRowCountByJobIdAndStatus(@Param("jobId") Long jobId, @Param("status") EtlChunkStatus status);
+
+    @Modifying
+    @Query("""
+        UPDATE EtlChunkEntity c
+        SET c.status = :status, c.rowCount = :rowCount, c.attempts = c.attempts + 1,
+            c.errorMessage = :errorMessage, c.updatedAt = :updatedAt
+        WHERE c.chunkId = :chunkId
+    """)
+    int updateStatus(@Param("chunkId") Long chunkId,
+                     @Param("status") EtlChunkStatus status,
+                     @Param("rowCount") long rowCount,
+                     @Param("errorMessage") String errorMessage,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+}
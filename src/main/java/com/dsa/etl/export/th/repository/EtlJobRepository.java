@@ -0,0 +1,13 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.model.entities.EtlJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EtlJobRepository extends JpaRepository<EtlJobEntity, Long> {
+
+    List<EtlJobEntity> findTop20ByOrderByJobIdDesc();
+}
@@ -0,0 +1,81 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+// Writes rows into the export_th source table. Only the bench profile uses it, to fill a
+// throwaway database with synthetic data; the ETL itself never writes to export_th.
+@Repository
+@Profile("bench")
+@Slf4j
+@RequiredArgsConstructor
+public class ExportThBulkWriter {
+    private static final String INSERT_ROW = "INSERT INTO export_th (id, country, hs2dg, description_hs2dg, " +
+            "hs4dg, description_hs4dg, thaip_value, dollar_value, size, month, year) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public void truncate() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE TABLE export_th");
+        } catch (SQLException e) {
+            throw new ETLException("Failed to truncate export_th: " + e.getMessage(), e);
+        }
+    }
+
+    // One batch, one transaction; rewriteBatchedStatements turns it into multi-row INSERTs
+    public void insert(List<ExportThRow> rows) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_ROW)) {
+                for (ExportThRow row : rows) {
+                    stmt.setLong(1, row.getId());
+                    stmt.setString(2, row.getCountry());
+                    setInteger(stmt, 3, row.getHs2dg());
+                    stmt.setString(4, row.getDescriptionHs2dg());
+                    setInteger(stmt, 5, row.getHs4dg());
+                    stmt.setString(6, row.getDescriptionHs4dg());
+                    stmt.setString(7, row.getThaipValue());
+                    stmt.setString(8, row.getDollarValue());
+                    stmt.setString(9, row.getSize());
+                    stmt.setString(10, row.getMonth());
+                    stmt.setString(11, row.getYear());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("Error inserting {} export_th rows", rows.size(), e);
+            throw new ETLException("Failed to insert export_th rows: " + e.getMessage(), e);
+        }
+    }
+
+    private void setInteger(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            stmt.setInt(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+// Forward-only reader for export_th. Rows are streamed from MySQL one at a time
+// and handed to the consumer without going through Hibernate.
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class ExportThJdbcReader {
+    private static final String SELECT_ROWS = "SELECT id, country, hs2dg, description_hs2dg, hs4dg, " +
+            "description_hs4dg, thaip_value, dollar_value, size, month, year FROM export_th";
+
+    private static final int NET_WRITE_TIMEOUT_SECONDS = 600;
+
+    private final DataSource dataSource;
+
+    public long streamByYear(String year, Consumer<ExportThRow> consumer) {
+        return stream(SELECT_ROWS + " WHERE year = ?", consumer, year);
+    }
+
+    public long streamByYearInIdRange(String year, long afterId, long toId, Consumer<ExportThRow> consumer) {
+        return stream(SELECT_ROWS + " WHERE year = ? AND id > ? AND id <= ? ORDER BY id",
+                consumer, year, afterId, toId);
+    }
+
+    public long streamAll(Consumer<ExportThRow> consumer) {
+        return stream(SELECT_ROWS, consumer);
+    }
+
+    public long streamInIdRange(long afterId, long toId, Consumer<ExportThRow> consumer) {
+        return stream(SELECT_ROWS + " WHERE id > ? AND id <= ? ORDER BY id", consumer, afterId, toId);
+    }
+
+    private long stream(String sql, Consumer<ExportThRow> consumer, Object... params) {
+        // Dedicated connection: a streaming result set owns it until fully read
+        try (Connection conn = dataSource.getConnection()) {
+            // The pipeline may block the reader while its queues are full; don't let the server drop us
+            setNetWriteTimeout(conn, String.valueOf(NET_WRITE_TIMEOUT_SECONDS));
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Connector/J streams row by row instead of buffering the whole result
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+
+                long count = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    try {
+                        while (rs.next()) {
+                            consumer.accept(mapRow(rs));
+                            count++;
+                        }
+                    } catch (RuntimeException | SQLException e) {
+                        // Closing a streaming result set reads every remaining row; when the
+                        // pipeline has failed, stop the query instead of draining the year
+                        cancel(stmt);
+                        throw e;
+                    }
+                }
+                return count;
+            } finally {
+                // The connection goes back to the pool; later borrowers get the server default
+                resetNetWriteTimeout(conn);
+            }
+        } catch (SQLException e) {
+            log.error("Error streaming export_th: {}", sql, e);
+            throw new ETLException("Failed to stream export_th: " + e.getMessage(), e);
+        }
+    }
+
+    private void cancel(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            log.warn("Could not cancel export_th stream: {}", e.getMessage());
+        }
+    }
+
+    // Runs in a finally block, so a failure is logged instead of masking the stream's own
+    private void resetNetWriteTimeout(Connection conn) {
+        try {
+            setNetWriteTimeout(conn, "DEFAULT");
+        } catch (SQLException e) {
+            log.warn("Could not reset net_write_timeout after streaming export_th: {}", e.getMessage());
+        }
+    }
+
+    private void setNetWriteTimeout(Connection conn, String value) throws SQLException {
+        try (Statement session = conn.createStatement()) {
+            session.execute("SET SESSION net_write_timeout = " + value);
+        }
+    }
+
+    private ExportThRow mapRow(ResultSet rs) throws SQLException {
+        return new ExportThRow(
+                rs.getLong(1),
+                rs.getString(2),
+                getInteger(rs, 3),
+                rs.getString(4),
+                getInteger(rs, 5),
+                rs.getString(6),
+                rs.getString(7),
+                rs.getString(8),
+                rs.getString(9),
+                rs.getString(10),
+                rs.getString(11));
+    }
+
+    private Integer getInteger(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -1,5 +1,6 @@
 package com.dsa.etl.export.th.repository;
 
+import com.dsa.etl.export.th.model.dto.IdRange;
 import com.dsa.etl.export.th.model.entities.ExportThEntity;
 import com.dsa.etl.export.th.model.entities.ExportThId;
 import jakarta.persistence.QueryHint;
@@ -11,6 +12,7 @@ import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -32,22 +34,51 @@ public interface ExportThRepository extends JpaRepository<ExportThEntity, Export
     Page<ExportThEntity> findByYear(String year, Pageable pageable);
 
 
-    @Query(value = "SELECT * FROM export_th WHERE year = :year LIMIT :limit OFFSET :offset",
-            nativeQuery = true)
-    List<ExportThEntity> findByYearWithPagination(@Param("year") String year,
-                                                  @Param("offset") int offset,
-                                                  @Param("limit") int limit);
-
     @Query(value = "SELECT COUNT(*) FROM export_th WHERE year = :year",
             nativeQuery = true)
     long countByYear(@Param("year") String year);
 
-    @Query(value = "SELECT * FROM export_th LIMIT :limit OFFSET :offset",
+    @Query(value = "SELECT DISTINCT month FROM export_th WHERE year = :year ORDER BY month",
             nativeQuery = true)
-    List<ExportThEntity> findAllWithPagination(@Param("offset") int offset,
-                                               @Param("limit") int limit);
+    List<String> findDistinctMonthsByYear(@Param("year") String year);
 
+    // Keyset (seek) extraction: every query continues from the last seen id,
+    // so late chunks cost the same as early ones (no OFFSET scan).
+    @Query(value = "SELECT MAX(t.id) FROM (SELECT id FROM export_th WHERE year = :year AND id > :afterId " +
+            "ORDER BY id LIMIT :limit) t",
+            nativeQuery = true)
+    Long findChunkUpperIdByYear(@Param("year") String year,
+                                @Param("afterId") long afterId,
+                                @Param("limit") int limit);
 
+    @Query(value = "SELECT MAX(t.id) FROM (SELECT id FROM export_th WHERE id > :afterId " +
+            "ORDER BY id LIMIT :limit) t",
+            nativeQuery = true)
+    Long findChunkUpperId(@Param("afterId") long afterId,
+                          @Param("limit") int limit);
+
+    // Split the year into id ranges of at most chunkSize rows, seeking on the id index
+    default List<IdRange> planChunksByYear(String year, int chunkSize) {
+        List<IdRange> ranges = new ArrayList<>();
+        long afterId = 0;
+        Long toId;
+        while ((toId = findChunkUpperIdByYear(year, afterId, chunkSize)) != null) {
+            ranges.add(new IdRange(afterId, toId));
+            afterId = toId;
+        }
+        return ranges;
+    }
+
+    default List<IdRange> planChunks(int chunkSize) {
+        List<IdRange> ranges = new ArrayList<>();
+        long afterId = 0;
+        Long toId;
+        while ((toId = findChunkUpperId(afterId, chunkSize)) != null) {
+            ranges.add(new IdRange(afterId, toId));
+            afterId = toId;
+        }
+        return ranges;
+    }
 }
 
 
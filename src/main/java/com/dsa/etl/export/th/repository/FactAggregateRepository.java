@@ -0,0 +1,147 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.model.dto.FactSummaryProjection;
+import com.dsa.etl.export.th.model.entities.AggExportThHs2Entity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Summary queries answered from the pre-aggregated tables instead of fact_export_th.
+// One row there stands for many facts, so counts are SUM(recordCount), not COUNT.
+@Repository
+public interface FactAggregateRepository extends JpaRepository<AggExportThHs2Entity, Long> {
+
+    // Rebuild of one year, called in a single transaction by FactAggregateService
+    @Modifying
+    @Query(value = "DELETE FROM agg_export_th_hs2 WHERE year = :year", nativeQuery = true)
+    int deleteHs2ByYear(@Param("year") Integer year);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO agg_export_th_hs2
+            (year, month, country_id, hs2_id, total_thaip_value, total_dollar_value, record_count)
+        SELECT year, month, country_id, hs2_id, SUM(thaip_value), SUM(dollar_value), COUNT(*)
+        FROM fact_export_th
+        WHERE year = :year
+        GROUP BY year, month, country_id, hs2_id
+    """, nativeQuery = true)
+    int insertHs2ByYear(@Param("year") Integer year);
+
+    @Modifying
+    @Query(value = "DELETE FROM agg_export_th_hs4 WHERE year = :year", nativeQuery = true)
+    int deleteHs4ByYear(@Param("year") Integer year);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO agg_export_th_hs4
+            (year, month, country_id, hs4_id, total_thaip_value, total_dollar_value, record_count)
+        SELECT year, month, country_id, hs4_id, SUM(thaip_value), SUM(dollar_value), COUNT(*)
+        FROM fact_export_th
+        WHERE year = :year
+        GROUP BY year, month, country_id, hs4_id
+    """, nativeQuery = true)
+    int insertHs4ByYear(@Param("year") Integer year);
+
+    @Modifying
+    @Query(value = "DELETE FROM agg_export_th_hs2", nativeQuery = true)
+    int deleteAllHs2();
+
+    @Modifying
+    @Query(value = "DELETE FROM agg_export_th_hs4", nativeQuery = true)
+    int deleteAllHs4();
+
+    // Sum queries
+    @Query("SELECT SUM(a.totalThaipValue) FROM AggExportThHs2Entity a WHERE a.year = :year")
+    BigDecimal sumThaipValueByYear(@Param("year") Integer year);
+
+    @Query("SELECT SUM(a.totalDollarValue) FROM AggExportThHs2Entity a WHERE a.year = :year")
+    BigDecimal sumDollarValueByYear(@Param("year") Integer year);
+
+    @Query("SELECT COALESCE(SUM(a.recordCount), 0) FROM AggExportThHs2Entity a WHERE a.year = :year")
+    long countByYear(@Param("year") Integer year);
+
+    @Query("SELECT SUM(a.totalThaipValue) FROM AggExportThHs2Entity a WHERE a.year = :year AND a.month = :month")
+    BigDecimal sumThaipValueByYearAndMonth(@Param("year") Integer year, @Param("month") Integer month);
+
+    @Query("SELECT SUM(a.totalDollarValue) FROM AggExportThHs2Entity a WHERE a.year = :year AND a.month = :month")
+    BigDecimal sumDollarValueByYearAndMonth(@Param("year") Integer year, @Param("month") Integer month);
+
+    @Query("SELECT COALESCE(SUM(a.recordCount), 0) FROM AggExportThHs2Entity a WHERE a.year = :year AND a.month = :month")
+    long countByYearAndMonth(@Param("year") Integer year, @Param("month") Integer month);
+
+    // Top countries query
+    @Query("""
+        SELECT c.country as country,
+               SUM(a.totalThaipValue) as totalValue,
+               SUM(a.recordCount) as recordCount
+        FROM AggExportThHs2Entity a
+        JOIN DimCountryEntity c ON a.countryId = c.countryId
+        WHERE a.year = :year
+        GROUP BY c.country
+        ORDER BY totalValue DESC
+        LIMIT :limit
+    """)
+    List<Map<String, Object>> findTopCountriesByValue(@Param("year") Integer year, @Param("limit") int limit);
+
+    // Top HS2 categories query
+    @Query("""
+        SELECT h.description as category,
+               SUM(a.totalThaipValue) as totalValue,
+               SUM(a.recordCount) as recordCount
+        FROM AggExportThHs2Entity a
+        JOIN DimHs2Entity h ON a.hs2Id = h.hs2Id
+        WHERE a.year = :year
+        GROUP BY h.description
+        ORDER BY totalValue DESC
+        LIMIT :limit
+    """)
+    List<Map<String, Object>> findTopHS2ByValue(@Param("year") Integer year, @Param("limit") int limit);
+
+    // Get summary with dimension details
+    @Query("""
+        SELECT
+            c.country as country,
+            h2.description as hs2Category,
+            SUM(a.totalThaipValue) as totalThaipValue,
+            SUM(a.totalDollarValue) as totalDollarValue,
+            SUM(a.recordCount) as recordCount
+        FROM AggExportThHs2Entity a
+        LEFT JOIN DimCountryEntity c ON a.countryId = c.countryId
+        LEFT JOIN DimHs2Entity h2 ON a.hs2Id = h2.hs2Id
+        WHERE a.year = :year
+        GROUP BY c.country, h2.description
+        ORDER BY totalThaipValue DESC
+        LIMIT :limit
+    """)
+    List<FactSummaryProjection> findFactSummaryByYear(
+            @Param("year") Integer year,
+            @Param("limit") int limit
+    );
+
+    @Query("""
+        SELECT
+            c.country as country,
+            h2.description as hs2Category,
+            SUM(a.totalThaipValue) as totalThaipValue,
+            SUM(a.totalDollarValue) as totalDollarValue,
+            SUM(a.recordCount) as recordCount
+        FROM AggExportThHs2Entity a
+        LEFT JOIN DimCountryEntity c ON a.countryId = c.countryId
+        LEFT JOIN DimHs2Entity h2 ON a.hs2Id = h2.hs2Id
+        WHERE a.year = :year AND a.month = :month
+        GROUP BY c.country, h2.description
+        ORDER BY totalThaipValue DESC
+        LIMIT :limit
+    """)
+    List<FactSummaryProjection> findFactSummaryByYearAndMonth(
+            @Param("year") Integer year,
+            @Param("month") Integer month,
+            @Param("limit") int limit
+    );
+}
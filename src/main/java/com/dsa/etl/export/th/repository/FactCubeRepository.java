@@ -0,0 +1,53 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Reads one year of fact_export_th at cube grain, ordered by month
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class FactCubeRepository {
+    private static final String GRAIN_SQL = "SELECT COALESCE(month, 0), country_id, hs2_id, hs4_id, " +
+            "SUM(thaip_value), SUM(dollar_value), COUNT(*) " +
+            "FROM fact_export_th WHERE year = ? " +
+            "GROUP BY month, country_id, hs2_id, hs4_id " +
+            "ORDER BY COALESCE(month, 0)";
+
+    @FunctionalInterface
+    public interface GrainConsumer {
+        void accept(int month, Long countryId, Long hs2Id, Long hs4Id, long thaipCents, long dollarCents, long rows);
+    }
+
+    private final DataSource dataSource;
+
+    public void streamYear(int year, GrainConsumer consumer) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(GRAIN_SQL)) {
+            stmt.setInt(1, year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getInt(1), rs.getObject(2, Long.class), rs.getObject(3, Long.class),
+                            rs.getObject(4, Long.class), cents(rs.getBigDecimal(5)), cents(rs.getBigDecimal(6)),
+                            rs.getLong(7));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error reading cube grain of year {}", year, e);
+            throw new ETLException("Failed to read cube grain of year " + year + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static long cents(BigDecimal value) {
+        return value != null ? value.movePointRight(2).longValueExact() : 0;
+    }
+}
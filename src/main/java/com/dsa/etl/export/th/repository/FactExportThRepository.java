@@ -6,6 +6,7 @@ import com.dsa.etl.export.th.model.entities.FactExportThEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,7 +19,13 @@ import java.util.Map;
 public interface FactExportThRepository extends JpaRepository<FactExportThEntity, Long> {
 
 
-    void deleteByYear(Integer year);
+    // Bulk delete; the derived deleteByYear loaded every fact of the year into the session first
+    @Modifying
+    @Query("DELETE FROM FactExportThEntity f WHERE f.year = :year")
+    int deleteByYear(@Param("year") Integer year);
+
+    @Query("SELECT DISTINCT f.year FROM FactExportThEntity f WHERE f.year IS NOT NULL ORDER BY f.year")
+    List<Integer> findDistinctYears();
 
     // Count queries
     long countByYear(Integer year);
@@ -73,6 +80,33 @@ public interface FactExportThRepository extends JpaRepository<FactExportThEntity
     """)
     List<Map<String, Object>> findTopHS2ByValue(@Param("year") Integer year, @Param("limit") int limit);
 
+    // Fact rows only; names are filled in from the dimension cache
+    @Query("""
+        SELECT f FROM FactExportThEntity f
+        WHERE (:year IS NULL OR f.year = :year)
+        AND (:month IS NULL OR f.month = :month)
+    """)
+    Page<FactExportThEntity> findFacts(
+            @Param("year") Integer year,
+            @Param("month") Integer month,
+            Pageable pageable
+    );
+
+    // Keyset page: seeks past afterId on the primary key / (month, id) index, no OFFSET and no COUNT
+    @Query("""
+        SELECT f FROM FactExportThEntity f
+        WHERE (:year IS NULL OR f.year = :year)
+        AND (:month IS NULL OR f.month = :month)
+        AND f.id > :afterId
+        ORDER BY f.id
+    """)
+    List<FactExportThEntity> findFactsAfter(
+            @Param("year") Integer year,
+            @Param("month") Integer month,
+            @Param("afterId") long afterId,
+            Pageable pageable
+    );
+
     @Query("""
         SELECT 
             f.id as factId,
@@ -0,0 +1,124 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Forward-only reader for fact_export_th, used by the export download. Rows are
+// streamed from a server-side cursor and never collected; the facts handed to the
+// consumer are plain objects, not managed entities.
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class FactJdbcReader {
+    private static final String SELECT_FACTS = "SELECT id, country_id, hs2_id, hs4_id, thaip_value, dollar_value, " +
+            "size, month, year FROM fact_export_th";
+
+    // A slow download client blocks the reader; keep the server from dropping the cursor
+    private static final int NET_WRITE_TIMEOUT_SECONDS = 3600;
+
+    private final DataSource dataSource;
+
+    public long streamFacts(Integer year, Integer month, Consumer<FactExportThEntity> consumer) {
+        // Only the filters given go into the WHERE clause, so a year prunes to its
+        // partition and a month can use the (month, id) index
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (year != null) {
+            conditions.add("year = ?");
+            params.add(year);
+        }
+        if (month != null) {
+            conditions.add("month = ?");
+            params.add(month);
+        }
+        String sql = SELECT_FACTS + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                " ORDER BY id";
+
+        // Dedicated connection: a streaming result set owns it until fully read
+        try (Connection conn = dataSource.getConnection()) {
+            setNetWriteTimeout(conn, String.valueOf(NET_WRITE_TIMEOUT_SECONDS));
+            try {
+                return stream(conn, sql, params, consumer);
+            } finally {
+                // The connection goes back to the pool; later borrowers get the server default
+                resetNetWriteTimeout(conn);
+            }
+        } catch (SQLException e) {
+            log.error("Error streaming fact_export_th for {}/{}", year, month, e);
+            throw new ETLException("Failed to stream facts: " + e.getMessage(), e);
+        }
+    }
+
+    private long stream(Connection conn, String sql, List<Object> params, Consumer<FactExportThEntity> consumer)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            long count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                try {
+                    while (rs.next()) {
+                        consumer.accept(FactExportThEntity.builder()
+                                .id(rs.getLong(1))
+                                .countryId(rs.getObject(2, Long.class))
+                                .hs2Id(rs.getObject(3, Long.class))
+                                .hs4Id(rs.getObject(4, Long.class))
+                                .thaipValue(rs.getBigDecimal(5))
+                                .dollarValue(rs.getBigDecimal(6))
+                                .size(rs.getString(7))
+                                .month(rs.getObject(8, Integer.class))
+                                .year(rs.getObject(9, Integer.class))
+                                .build());
+                        count++;
+                    }
+                } catch (RuntimeException | SQLException e) {
+                    // Closing a streaming result set reads every remaining row, e.g. the rest
+                    // of the year after a client dropped the download; stop the query first
+                    cancel(stmt);
+                    throw e;
+                }
+            }
+            return count;
+        }
+    }
+
+    private void cancel(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            log.warn("Could not cancel fact_export_th stream: {}", e.getMessage());
+        }
+    }
+
+    // Runs in a finally block, so a failure is logged instead of masking the stream's own
+    private void resetNetWriteTimeout(Connection conn) {
+        try {
+            setNetWriteTimeout(conn, "DEFAULT");
+        } catch (SQLException e) {
+            log.warn("Could not reset net_write_timeout after streaming facts: {}", e.getMessage());
+        }
+    }
+
+    private void setNetWriteTimeout(Connection conn, String value) throws SQLException {
+        try (Statement session = conn.createStatement()) {
+            session.execute("SET SESSION net_write_timeout = " + value);
+        }
+    }
+}
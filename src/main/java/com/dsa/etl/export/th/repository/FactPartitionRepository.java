@@ -0,0 +1,228 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// fact_export_th is LIST-partitioned by year with one partition p<year> per year.
+// A reload empties its year with TRUNCATE PARTITION instead of deleting row by row,
+// and every query filtered on year is pruned to that year's partition.
+// Partition DDL commits implicitly, so it always runs on its own connection.
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class FactPartitionRepository {
+    private static final String TABLE = "fact_export_th";
+    // LIST partitioning needs at least one partition; year 0 never occurs in the data
+    private static final String PLACEHOLDER_PARTITION = "PARTITION p_none VALUES IN (0)";
+
+    private final DataSource dataSource;
+    private final Set<Integer> shadowYears = ConcurrentHashMap.newKeySet();
+
+    // Migration: Hibernate creates the table unpartitioned, so rebuild it once with
+    // a partition per year already present. MySQL requires the partition column in
+    // every unique key and does not allow foreign keys on partitioned tables.
+    @PostConstruct
+    private void partitionFactTable() {
+        try (Connection conn = dataSource.getConnection()) {
+            if (isPartitioned(conn)) {
+                return;
+            }
+            if (queryLong(conn, "SELECT COUNT(*) FROM " + TABLE + " WHERE year IS NULL") > 0) {
+                log.error("{} has rows without a year; it stays unpartitioned and reloads fall back to DELETE", TABLE);
+                return;
+            }
+
+            List<Integer> years = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT DISTINCT year FROM " + TABLE + " ORDER BY year")) {
+                while (rs.next()) {
+                    years.add(rs.getInt(1));
+                }
+            }
+
+            log.info("Partitioning {} by year ({} years), existing rows are copied once", TABLE, years.size());
+            long start = System.nanoTime();
+            for (String foreignKey : foreignKeys(conn)) {
+                execute(conn, "ALTER TABLE " + TABLE + " DROP FOREIGN KEY " + foreignKey);
+            }
+            execute(conn, "ALTER TABLE " + TABLE +
+                    " MODIFY year INT NOT NULL, DROP PRIMARY KEY, ADD PRIMARY KEY (id, year)");
+            String partitions = years.isEmpty()
+                    ? PLACEHOLDER_PARTITION
+                    : years.stream().map(FactPartitionRepository::partitionDefinition).collect(Collectors.joining(", "));
+            execute(conn, "ALTER TABLE " + TABLE + " PARTITION BY LIST (year) (" + partitions + ")");
+            log.info("Partitioned {} in {} ms", TABLE, (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            log.error("Error partitioning {}: {}", TABLE, e.getMessage(), e);
+        }
+    }
+
+    // Adds the missing year partitions; inserts into a year without one would fail
+    public synchronized void ensurePartitions(Collection<Integer> years) {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!isPartitioned(conn)) {
+                return;
+            }
+            Set<String> existing = partitionNames(conn);
+            for (Integer year : years) {
+                if (existing.add(partitionName(year))) {
+                    execute(conn, "ALTER TABLE " + TABLE + " ADD PARTITION (" + partitionDefinition(year) + ")");
+                    log.info("Added partition {} to {}", partitionName(year), TABLE);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error adding partitions {} to {}", years, TABLE, e);
+            throw new ETLException("Failed to add fact partitions: " + e.getMessage(), e);
+        }
+    }
+
+    // Empties one year before it is reloaded
+    public void truncateYear(int year) {
+        ensurePartitions(List.of(year));
+        long start = System.nanoTime();
+        try (Connection conn = dataSource.getConnection()) {
+            if (isPartitioned(conn)) {
+                execute(conn, "ALTER TABLE " + TABLE + " TRUNCATE PARTITION " + partitionName(year));
+            } else {
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE year = ?")) {
+                    stmt.setInt(1, year);
+                    stmt.executeUpdate();
+                }
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error clearing year {} of {}", year, TABLE, e);
+            throw new ETLException("Failed to clear facts of year " + year + ": " + e.getMessage(), e);
+        }
+        log.info("Cleared facts of year {} in {} ms", year, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Empty, unpartitioned copy of the fact table for a shadow load of one year. Only one
+    // shadow load per year may run: a second one would publish over the first. The name
+    // is unique so staging tables of other instances or crashed runs are never reused.
+    public String createStaging(int year) {
+        if (!shadowYears.add(year)) {
+            throw new ETLException("A shadow load of year " + year + " is already running");
+        }
+        String staging = TABLE + "_stage_" + year + "_" + UUID.randomUUID().toString().substring(0, 8);
+        try (Connection conn = dataSource.getConnection()) {
+            if (!isPartitioned(conn)) {
+                throw new ETLException("Shadow load needs " + TABLE + " partitioned by year");
+            }
+            execute(conn, "CREATE TABLE " + staging + " LIKE " + TABLE);
+            execute(conn, "ALTER TABLE " + staging + " REMOVE PARTITIONING");
+        } catch (SQLException e) {
+            log.error("Error creating staging table {}", staging, e);
+            dropStaging(year, staging);
+            throw new ETLException("Failed to create staging table " + staging + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            shadowYears.remove(year);
+            throw e;
+        }
+        return staging;
+    }
+
+    // Swaps the staging rows in as the year's partition in one metadata change; the
+    // replaced rows end up in the staging table. The rows were verified before, so
+    // MySQL is told not to scan them again while it holds the table lock.
+    public void exchange(int year, String staging) {
+        ensurePartitions(List.of(year));
+        long start = System.nanoTime();
+        try (Connection conn = dataSource.getConnection()) {
+            execute(conn, "ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partitionName(year) +
+                    " WITH TABLE " + staging + " WITHOUT VALIDATION");
+        } catch (SQLException e) {
+            log.error("Error exchanging partition {} with {}", partitionName(year), staging, e);
+            throw new ETLException("Failed to publish year " + year + ": " + e.getMessage(), e);
+        }
+        log.info("Published year {} from {} in {} ms", year, staging, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Ends the year's shadow load, whether or not it was published
+    public void dropStaging(int year, String staging) {
+        try (Connection conn = dataSource.getConnection()) {
+            execute(conn, "DROP TABLE IF EXISTS " + staging);
+        } catch (SQLException e) {
+            log.warn("Could not drop staging table {}: {}", staging, e.getMessage());
+        } finally {
+            shadowYears.remove(year);
+        }
+    }
+
+    private boolean isPartitioned(Connection conn) throws SQLException {
+        return !partitionNames(conn).isEmpty();
+    }
+
+    private Set<String> partitionNames(Connection conn) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL")) {
+            stmt.setString(1, TABLE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private List<String> foreignKeys(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                        "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            stmt.setString(1, TABLE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private long queryLong(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static String partitionName(int year) {
+        return "p" + year;
+    }
+
+    private static String partitionDefinition(int year) {
+        return "PARTITION " + partitionName(year) + " VALUES IN (" + year + ")";
+    }
+}
@@ -0,0 +1,181 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.enums.IdSequence;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// ELT path: facts are built inside MySQL with INSERT ... SELECT, joining the
+// dimension tables and cleaning the value strings in SQL. One call loads one
+// (year, month) partition on its own connection and commits it.
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class FactPushDownRepository {
+    // Same rule as ValueParser: keep digits and dots; blank, digit-less or multi-dot values are 0
+    private static final String CLEAN_VALUE =
+            "CASE WHEN REGEXP_REPLACE(COALESCE(%1$s, ''), '[^0-9.]', '') REGEXP '^[0-9]*[.]?[0-9]*$' " +
+            "AND %1$s REGEXP '[0-9]' " +
+            "THEN CAST(REGEXP_REPLACE(%1$s, '[^0-9.]', '') AS DECIMAL(20, 2)) ELSE 0 END";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM export_th WHERE year = ? AND month = ?";
+
+    private static final String FACT_TABLE = "fact_export_th";
+
+    // %s is the target table: the live fact table or a shadow-load staging table
+    private static final String INSERT_SQL = "INSERT INTO %s " +
+            "(id, country_id, hs2_id, hs4_id, thaip_value, dollar_value, size, month, year) " +
+            "SELECT ? + ROW_NUMBER() OVER (ORDER BY s.id) - 1, c.country_id, h2.hs2_id, h4.hs4_id, " +
+            String.format(CLEAN_VALUE, "s.thaip_value") + ", " +
+            String.format(CLEAN_VALUE, "s.dollar_value") + ", " +
+            "s.size, CAST(s.month AS UNSIGNED), CAST(s.year AS UNSIGNED) " +
+            "FROM export_th s " +
+            "LEFT JOIN dim_country c ON c.country = s.country " +
+            "LEFT JOIN dim_hs2 h2 ON h2.hs2dg = s.hs2dg " +
+            "LEFT JOIN dim_hs4 h4 ON h4.hs4dg = s.hs4dg " +
+            "WHERE s.year = ? AND s.month = ? " +
+            "ORDER BY s.id LIMIT ?";
+
+    private static final String VERIFY_SQL = "SELECT COUNT(*), " +
+            "SUM(country_id IS NULL OR hs2_id IS NULL OR hs4_id IS NULL) " +
+            "FROM %s WHERE year = ? AND id BETWEEN ? AND ?";
+
+    private static final String SOURCE_TOTALS_SQL = "SELECT COUNT(*), " +
+            "SUM(" + String.format(CLEAN_VALUE, "thaip_value") + "), " +
+            "SUM(" + String.format(CLEAN_VALUE, "dollar_value") + ") " +
+            "FROM export_th WHERE year = ?";
+
+    private static final String FACT_TOTALS_SQL = "SELECT COUNT(*), SUM(thaip_value), SUM(dollar_value), " +
+            "COALESCE(SUM(year <> ?), 0) FROM %s";
+
+    private final DataSource dataSource;
+    private final IdGeneratorRepository idGenerator;
+
+    public long loadMonth(String year, String month) {
+        return loadMonth(FACT_TABLE, year, month);
+    }
+
+    // Loads one month into table and returns the rows inserted; the partition is rolled
+    // back unless the fact row count matches the source row count
+    public long loadMonth(String table, String year, String month) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long sourceRows = count(conn, COUNT_SQL, year, month);
+                if (sourceRows == 0) {
+                    conn.commit();
+                    return 0;
+                }
+
+                // One id block per partition; LIMIT keeps late source rows from running past it
+                long firstId = idGenerator.reserve(IdSequence.FACT, Math.toIntExact(sourceRows));
+                long inserted;
+                try (PreparedStatement stmt = conn.prepareStatement(String.format(INSERT_SQL, table))) {
+                    stmt.setLong(1, firstId);
+                    stmt.setString(2, year);
+                    stmt.setString(3, month);
+                    stmt.setLong(4, sourceRows);
+                    inserted = stmt.executeLargeUpdate();
+                }
+
+                verify(conn, table, year, month, firstId, sourceRows, inserted);
+                conn.commit();
+                return inserted;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Push-down load failed for {}/{}", year, month, e);
+            throw new ETLException("Push-down load failed for " + year + "/" + month + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void verify(Connection conn, String table, String year, String month,
+                        long firstId, long sourceRows, long inserted) throws SQLException {
+        // The month's facts are exactly the reserved id block, so this stays a primary key
+        // range scan inside the year's table partition
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(VERIFY_SQL, table))) {
+            stmt.setInt(1, Integer.parseInt(year));
+            stmt.setLong(2, firstId);
+            stmt.setLong(3, firstId + sourceRows - 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                long factRows = rs.getLong(1);
+                long unmatched = rs.getLong(2);
+                if (inserted != sourceRows || factRows != sourceRows) {
+                    throw new ETLException("Push-down verification failed for " + year + "/" + month +
+                            ": source=" + sourceRows + ", inserted=" + inserted + ", facts=" + factRows);
+                }
+                if (unmatched > 0) {
+                    log.warn("{} facts of {}/{} have no matching dimension", unmatched, year, month);
+                }
+            }
+        }
+    }
+
+    // Checks a fully loaded table holding one year against the source: same row count,
+    // same cleaned value totals and no row of another year
+    public void verifyYear(String table, String year) {
+        try (Connection conn = dataSource.getConnection()) {
+            long sourceRows;
+            BigDecimal sourceThaip;
+            BigDecimal sourceDollar;
+            try (PreparedStatement stmt = conn.prepareStatement(SOURCE_TOTALS_SQL)) {
+                stmt.setString(1, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    sourceRows = rs.getLong(1);
+                    sourceThaip = zeroIfNull(rs.getBigDecimal(2));
+                    sourceDollar = zeroIfNull(rs.getBigDecimal(3));
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(String.format(FACT_TOTALS_SQL, table))) {
+                stmt.setInt(1, Integer.parseInt(year));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    long factRows = rs.getLong(1);
+                    BigDecimal factThaip = zeroIfNull(rs.getBigDecimal(2));
+                    BigDecimal factDollar = zeroIfNull(rs.getBigDecimal(3));
+                    long otherYears = rs.getLong(4);
+                    if (factRows != sourceRows || otherYears != 0
+                            || factThaip.compareTo(sourceThaip) != 0 || factDollar.compareTo(sourceDollar) != 0) {
+                        throw new ETLException("Verification of " + table + " failed for year " + year +
+                                ": rows " + factRows + "/" + sourceRows +
+                                ", thaip_value " + factThaip + "/" + sourceThaip +
+                                ", dollar_value " + factDollar + "/" + sourceDollar +
+                                ", rows of other years " + otherYears);
+                    }
+                    log.info("Verified {} for year {}: {} rows, thaip_value {}, dollar_value {}",
+                            table, year, factRows, factThaip, factDollar);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Verification of {} failed for year {}", table, year, e);
+            throw new ETLException("Verification of " + table + " failed for year " + year + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static BigDecimal zeroIfNull(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private long count(Connection conn, String sql, String year, String month) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, year);
+            stmt.setString(2, month);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.enums.IdSequence;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// id_generator rows used by the pooled @TableGenerator ids
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class IdGeneratorRepository {
+    private final DataSource dataSource;
+
+    // Tables created with IDENTITY already hold ids; move every generator past them.
+    // The pooled optimizer hands out (value - allocationSize, value], so value must
+    // be at least MAX(id) + allocationSize.
+    @PostConstruct
+    private void seedGenerators() {
+        for (IdSequence sequence : IdSequence.values()) {
+            String sql = "INSERT INTO id_generator (gen_name, gen_value) " +
+                    "SELECT ?, COALESCE(MAX(" + sequence.getIdColumn() + "), 0) + ? FROM " + sequence.getTable() +
+                    " ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value))";
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, sequence.getName());
+                stmt.setLong(2, sequence.getAllocationSize() + 1L);
+                stmt.executeUpdate();
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                log.error("Error seeding id generator {}: {}", sequence.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    // Reserves count consecutive ids for writers that bypass Hibernate and returns the first one.
+    // Matches the pooled optimizer: whoever reads value V owns ids above V - allocationSize,
+    // so taking (V - allocationSize, V - allocationSize + count] and storing V + count
+    // keeps both kinds of callers on disjoint ranges.
+    public long reserve(IdSequence sequence, int count) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                long value;
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT gen_value FROM id_generator WHERE gen_name = ? FOR UPDATE")) {
+                    select.setString(1, sequence.getName());
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new ETLException("Id generator not initialized: " + sequence.getName());
+                        }
+                        value = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement update = conn.prepareStatement(
+                        "UPDATE id_generator SET gen_value = ? WHERE gen_name = ?")) {
+                    update.setLong(1, value + count);
+                    update.setString(2, sequence.getName());
+                    update.executeUpdate();
+                }
+                conn.commit();
+                return value - sequence.getAllocationSize() + 1;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("Error reserving {} ids for {}", count, sequence.getName(), e);
+            throw new ETLException("Failed to reserve ids: " + e.getMessage(), e);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.dsa.etl.export.th.repository.DimCountryRepository;
 import com.dsa.etl.export.th.repository.DimHs2Repository;
 import com.dsa.etl.export.th.repository.DimHs4Repository;
 import com.dsa.etl.export.th.repository.FactExportThRepository;
+import com.dsa.etl.export.th.repository.FactPartitionRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,9 @@ public class ClearTableService {
     private final DimCountryRepository countryRepo;
     private final FactExportThRepository factRepo;
     private final DataSource dataSource;
+    private final DimensionCache dimensionCache;
+    private final FactPartitionRepository factPartitions;
+    private final FactAggregateService aggregates;
 
     @Transactional
     public void clearAllTables() {
@@ -50,6 +54,8 @@ public class ClearTableService {
             hs2Repo.deleteAllInBatch();
             hs4Repo.deleteAllInBatch();
             countryRepo.deleteAllInBatch();
+            aggregates.clearAfterCommit();
+            dimensionCache.refreshAfterCommit();
 
             // Enable foreign key checks
             enableForeignKeyChecks();
@@ -73,7 +79,8 @@ public class ClearTableService {
 
             // Clear fact table for specific year
             log.info("Clearing fact table data for year {}...", year);
-            factRepo.deleteByYear(yearInt);
+            factPartitions.truncateYear(yearInt);
+            aggregates.rebuildAfterCommit(List.of(yearInt));
 
             // Clear unused dimensions
             log.info("Clearing unused dimensions...");
@@ -108,6 +115,7 @@ public class ClearTableService {
             countryRepo.deleteAll(unusedCountries);
             log.info("Cleared {} unused country dimensions", unusedCountries.size());
         }
+        dimensionCache.refreshAfterCommit();
     }
 
     private void disableForeignKeyChecks() {
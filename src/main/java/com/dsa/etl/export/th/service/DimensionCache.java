@@ -0,0 +1,76 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.repository.DimCountryRepository;
+import com.dsa.etl.export.th.repository.DimHs2Repository;
+import com.dsa.etl.export.th.repository.DimHs4Repository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// The dimension tables held in memory for the ETL lookups and the query API.
+// Readers take the current snapshot without locking; a refresh builds a complete
+// new snapshot and swaps it in, so nobody sees a half-loaded version.
+@Service
+@Slf4j
+public class DimensionCache {
+    private final DimHs2Repository hs2Repo;
+    private final DimHs4Repository hs4Repo;
+    private final DimCountryRepository countryRepo;
+    private final TransactionTemplate readTransaction;
+    private final AtomicReference<DimensionSnapshot> current = new AtomicReference<>();
+
+    public DimensionCache(DimHs2Repository hs2Repo,
+                          DimHs4Repository hs4Repo,
+                          DimCountryRepository countryRepo,
+                          PlatformTransactionManager transactionManager) {
+        this.hs2Repo = hs2Repo;
+        this.hs4Repo = hs4Repo;
+        this.countryRepo = countryRepo;
+        // Reads only committed rows, also when called from inside an ETL transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public DimensionSnapshot current() {
+        DimensionSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    // Reloads the tables; the version only moves when the rows actually changed
+    public synchronized DimensionSnapshot refresh() {
+        DimensionSnapshot previous = current.get();
+        // Starts from the clock so ETags handed out before a restart never match
+        long version = previous != null ? previous.getVersion() + 1 : System.currentTimeMillis();
+        DimensionSnapshot loaded = readTransaction.execute(status ->
+                new DimensionSnapshot(version, hs2Repo.findAll(), hs4Repo.findAll(), countryRepo.findAll()));
+
+        if (previous != null && previous.sameRows(loaded)) {
+            return previous;
+        }
+        current.set(loaded);
+        log.info("Published dimension snapshot {}: HS2={}, HS4={}, Countries={}",
+                version, loaded.getHs2().size(), loaded.getHs4().size(), loaded.getCountries().size());
+        return loaded;
+    }
+
+    // Dimension writes become visible once their transaction commits, not before
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+
+import java.util.List;
+
+// Natural key -> surrogate id tables used by FactMapper. Lookups return primitive
+// ids (0 when the value has no dimension row) instead of whole entities. Public so
+// the transform benchmarks can build one; writes stay package-private.
+public final class DimensionLookup {
+    private final IntIdLookup hs2 = new IntIdLookup();
+    private final IntIdLookup hs4 = new IntIdLookup();
+    private final StringIdLookup countries = new StringIdLookup();
+
+    public static DimensionLookup of(List<DimHs2Entity> hs2Rows,
+                              List<DimHs4Entity> hs4Rows,
+                              List<DimCountryEntity> countryRows) {
+        DimensionLookup lookup = new DimensionLookup();
+        hs2Rows.forEach(d -> lookup.putHs2(d.getHs2dg(), d.getHs2Id()));
+        hs4Rows.forEach(d -> lookup.putHs4(d.getHs4dg(), d.getHs4Id()));
+        countryRows.forEach(d -> lookup.putCountry(d.getCountry(), d.getCountryId()));
+        return lookup;
+    }
+
+    public long hs2Id(Integer hs2dg) {
+        return hs2dg != null ? hs2.get(hs2dg) : 0;
+    }
+
+    public long hs4Id(Integer hs4dg) {
+        return hs4dg != null ? hs4.get(hs4dg) : 0;
+    }
+
+    public long countryId(String country) {
+        return country != null ? countries.get(country) : 0;
+    }
+
+    void putHs2(Integer hs2dg, long id) {
+        if (hs2dg != null) {
+            hs2.put(hs2dg, id);
+        }
+    }
+
+    void putHs4(Integer hs4dg, long id) {
+        if (hs4dg != null) {
+            hs4.put(hs4dg, id);
+        }
+    }
+
+    void putCountry(String country, long id) {
+        if (country != null) {
+            countries.put(country, id);
+        }
+    }
+}
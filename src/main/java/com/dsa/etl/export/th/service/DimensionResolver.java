@@ -0,0 +1,45 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import com.dsa.etl.export.th.model.enums.DimensionType;
+import com.dsa.etl.export.th.repository.DimensionUpsertRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Single-pass dimension lookups: values not seen before are upserted on first use
+// so the fact being mapped can reference their surrogate key right away. The upsert
+// returns the existing key when a concurrent load inserted the value first.
+// One instance per ETL run, used from a single thread.
+@RequiredArgsConstructor
+class DimensionResolver {
+    private final DimensionUpsertRepository dimensionUpserts;
+    @Getter
+    private final DimensionLookup lookup;
+
+    @Getter
+    private int newHs2Count;
+    @Getter
+    private int newHs4Count;
+    @Getter
+    private int newCountryCount;
+
+    void resolve(ExportThRow source) {
+        if (source.getHs2dg() != null && lookup.hs2Id(source.getHs2dg()) == 0) {
+            lookup.putHs2(source.getHs2dg(),
+                    dimensionUpserts.upsert(DimensionType.HS2, source.getHs2dg(), source.getDescriptionHs2dg()));
+            newHs2Count++;
+        }
+
+        if (source.getHs4dg() != null && lookup.hs4Id(source.getHs4dg()) == 0) {
+            lookup.putHs4(source.getHs4dg(),
+                    dimensionUpserts.upsert(DimensionType.HS4, source.getHs4dg(), source.getDescriptionHs4dg()));
+            newHs4Count++;
+        }
+
+        if (source.getCountry() != null && lookup.countryId(source.getCountry()) == 0) {
+            lookup.putCountry(source.getCountry(),
+                    dimensionUpserts.upsert(DimensionType.COUNTRY, source.getCountry(), null));
+            newCountryCount++;
+        }
+    }
+}
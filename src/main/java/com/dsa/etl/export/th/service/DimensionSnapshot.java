@@ -0,0 +1,75 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// One published version of the dimension tables. Never modified after construction:
+// a change to the tables produces a new snapshot with a higher version.
+@Getter
+public class DimensionSnapshot {
+    private final long version;
+    private final List<DimHs2Entity> hs2;
+    private final List<DimHs4Entity> hs4;
+    private final List<DimCountryEntity> countries;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, DimHs2Entity> hs2ById;
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, DimHs4Entity> hs4ById;
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, DimCountryEntity> countriesById;
+    // Shared by every reader of this version, so ETL must not add to it
+    @Getter(AccessLevel.PACKAGE)
+    private final DimensionLookup lookup;
+
+    DimensionSnapshot(long version,
+                      List<DimHs2Entity> hs2,
+                      List<DimHs4Entity> hs4,
+                      List<DimCountryEntity> countries) {
+        this.version = version;
+        this.hs2 = List.copyOf(hs2);
+        this.hs4 = List.copyOf(hs4);
+        this.countries = List.copyOf(countries);
+        this.hs2ById = byId(this.hs2, DimHs2Entity::getHs2Id);
+        this.hs4ById = byId(this.hs4, DimHs4Entity::getHs4Id);
+        this.countriesById = byId(this.countries, DimCountryEntity::getCountryId);
+        this.lookup = DimensionLookup.of(this.hs2, this.hs4, this.countries);
+    }
+
+    public String getETag() {
+        return "\"dim-" + version + "\"";
+    }
+
+    public DimHs2Entity hs2(Long hs2Id) {
+        return hs2Id != null ? hs2ById.get(hs2Id) : null;
+    }
+
+    public DimHs4Entity hs4(Long hs4Id) {
+        return hs4Id != null ? hs4ById.get(hs4Id) : null;
+    }
+
+    public DimCountryEntity country(Long countryId) {
+        return countryId != null ? countriesById.get(countryId) : null;
+    }
+
+    // Private copy for a run that adds dimensions as it goes (single pass)
+    DimensionLookup newLookup() {
+        return DimensionLookup.of(hs2, hs4, countries);
+    }
+
+    boolean sameRows(DimensionSnapshot other) {
+        return hs2.equals(other.hs2) && hs4.equals(other.hs4) && countries.equals(other.countries);
+    }
+
+    private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> id) {
+        return rows.stream().collect(Collectors.toUnmodifiableMap(id, Function.identity()));
+    }
+}
@@ -1,7 +1,11 @@
 package com.dsa.etl.export.th.service;
 
+import com.dsa.etl.export.th.config.EtlProperties;
 import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.dto.IdRange;
 import com.dsa.etl.export.th.model.entities.*;
+import com.dsa.etl.export.th.model.enums.DimensionType;
+import com.dsa.etl.export.th.model.enums.ETLMode;
 import com.dsa.etl.export.th.repository.*;
 import com.google.common.collect.Lists;
 import jakarta.annotation.PostConstruct;
@@ -20,8 +24,12 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -33,10 +41,22 @@ import java.util.stream.Stream;
 @Transactional
 public class ETLService {
     private final ExportThRepository sourceRepo;
+    private final ExportThJdbcReader sourceReader;
     private final DimHs2Repository hs2Repo;
     private final DimHs4Repository hs4Repo;
     private final DimCountryRepository countryRepo;
     private final FactExportThRepository factRepo;
+    private final FactMapper factMapper;
+    private final DimensionUpsertRepository dimensionUpserts;
+    private final FactSinkSelector factSinks;
+    private final EtlPipelineFactory pipelines;
+    private final EtlCheckpointService checkpoints;
+    private final DimensionCache dimensionCache;
+    private final FactPushDownRepository pushDownRepo;
+    private final FactPartitionRepository factPartitions;
+    private final FactAggregateService aggregates;
+    private final EtlMetrics metrics;
+    private final EtlProperties properties;
     private final DataSource dataSource;
     private static final int MAX_CONCURRENT_CHUNKS = 4;  // Reduce from default
     private final ClearTableService clearTableService;
@@ -47,67 +67,247 @@ public class ETLService {
 
 
     public void performETL(String year) {
+        performETL(year, ETLMode.TWO_PASS);
+    }
+
+    public void performETL(String year, ETLMode mode) {
+        performETL(year, mode, new EtlProgress());
+    }
+
+    public void performETL(String year, ETLMode mode, EtlProgress progress) {
 //        clearTables();
         //clearTableService.clearAllTables();
-        log.info("Starting ETL process for year: {}", year);
+        log.info("Starting {} ETL process for year: {}", mode, year);
         StopWatch watch = new StopWatch();
         watch.start();
+        long loaded = 0;
+        boolean succeeded = false;
 
         try {
 //            clearTables();
+            progress.setTotal(sourceRepo.countByYear(year));
+            loaded = switch (mode) {
+                case SINGLE_PASS -> runSinglePass(year, progress);
+                case PUSH_DOWN -> runPushDown(year, progress);
+                case SHADOW -> runShadow(year, progress);
+                default -> runTwoPass(year, progress);
+            };
+            aggregates.rebuildAfterCommit(List.of(Integer.parseInt(year)));
+            succeeded = true;
+        } catch (Exception e) {
+            log.error("ETL process failed for year: {}", year, e);
+            throw new ETLException("ETL process failed: " + e.getMessage());
+        } finally {
+            watch.stop();
+            metrics.recordRun("year", mode, loaded, watch.getTotalTimeNanos(), succeeded);
+            log.info("ETL process completed in {} seconds ({} fact rows, {} rows/sec)",
+                    watch.getTotalTimeSeconds(), loaded, rowsPerSecond(loaded, watch));
+        }
+    }
+
+    private long runTwoPass(String year, EtlProgress progress) {
+        // Dimensions and the fact reset commit up front; chunks commit on their own
+        // and must not depend on an outer transaction that could still roll back
+        checkpoints.inNewTransaction(() -> {
             // First extract and save dimensions from source data
             extractAndSaveDimensions(year);
+            return null;
+        });
 
-            // Clear existing data
-            factRepo.deleteByYear(Integer.parseInt(year));
-
-            // Load all dimension data into memory
-            Map<Integer, DimHs2Entity> hs2Map = loadHs2Map();
-            Map<Integer, DimHs4Entity> hs4Map = loadHs4Map();
-            Map<String, DimCountryEntity> countryMap = loadCountryMap();
-
-            // Get total count and calculate chunks
-            long totalRecords = sourceRepo.countByYear(year);
-            int chunkSize = 50000; // Process 50k records per chunk
-            int totalChunks = (int) Math.ceil((double) totalRecords / chunkSize);
-            int actualChunks = Math.min(totalChunks, MAX_CONCURRENT_CHUNKS);
-            log.info("Processing {} total records in {} chunks", totalRecords, totalChunks);//
-            // Process chunks in parallel
-//            List<CompletableFuture<Void>> futures = new ArrayList<>();
-//            for (int i = 0; i < totalChunks; i++) {
-//                int offset = i * chunkSize;
-//                futures.add(processChunk(year, offset, chunkSize, hs2Map, hs4Map, countryMap));
-//            }
-            //works before loop chunk
-//            List<CompletableFuture<Void>> futures = new ArrayList<>();
-//            for (int i = 0; i < actualChunks; i++) {
-//                int offset =(int) (i * (totalRecords / actualChunks));
-//                int limit = (i == actualChunks - 1) ?
-//                        (int) (totalRecords - offset) :
-//                        (int) (totalRecords / actualChunks);
-//                futures.add(processChunk(year, offset, limit, hs2Map, hs4Map, countryMap));
-//            }
+        // Clear existing data: the year's partition is truncated, not deleted row by row
+        factPartitions.truncateYear(Integer.parseInt(year));
+
+        // Plan key ranges and record them as the job's checkpoints
+        // A chunk is written as one batch in one transaction, so it is sized like a pipeline batch
+        int chunkSize = properties.getPipeline().getBatchSize();
+        List<IdRange> ranges = sourceRepo.planChunksByYear(year, chunkSize);
+        log.info("Processing year {} in {} chunks", year, ranges.size());//
 //            TODO แก้เรื่อง sql ของ fact เพื่อดึงชื่อ ประเทศ กับ hs2 hs4
 //            TODO ETL ALL Table 3M record
 //            TODO now แก้เรื่อง log loop
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
-            for (int i = 0; i < totalChunks; i++) {
-                int offset = i * chunkSize;
-                futures.add(processChunk(year, offset, chunkSize, hs2Map, hs4Map, countryMap));
+        EtlJobEntity job = checkpoints.createJob(year, ranges);
+        return loadChunks(job, checkpoints.unfinishedChunks(job.getJobId()), progress);
+    }
+
+    // ELT: MySQL joins and cleans the rows itself, one INSERT ... SELECT per month running
+    // in parallel; Java only schedules, times and verifies the partitions
+    private long runPushDown(String year, EtlProgress progress) {
+        checkpoints.inNewTransaction(() -> {
+            extractAndSaveDimensions(year);
+            return null;
+        });
+        factPartitions.truncateYear(Integer.parseInt(year));
+        return loadMonths(year, null, progress);
+    }
+
+    // Builds the year in a staging table and swaps it in with EXCHANGE PARTITION: readers
+    // keep the old numbers until the new ones are complete and verified, and the load
+    // takes no row locks on the live fact table
+    private long runShadow(String year, EtlProgress progress) {
+        checkpoints.inNewTransaction(() -> {
+            extractAndSaveDimensions(year);
+            return null;
+        });
+
+        int yearValue = Integer.parseInt(year);
+        String staging = factPartitions.createStaging(yearValue);
+        try {
+            long loaded = loadMonths(year, staging, progress);
+            pushDownRepo.verifyYear(staging, year);
+            factPartitions.exchange(yearValue, staging);
+            return loaded;
+        } finally {
+            // After the exchange this holds the replaced rows
+            factPartitions.dropStaging(yearValue, staging);
+        }
+    }
+
+    // Loads every month of the year with push-down statements, into the live fact table
+    // when table is null
+    private long loadMonths(String year, String table, EtlProgress progress) {
+        List<String> months = sourceRepo.findDistinctMonthsByYear(year);
+        int parallelism = Math.max(1, Math.min(properties.getPushDown().getParallelism(), months.size()));
+        log.info("Pushing down year {} in {} month partitions, {} at a time", year, months.size(), parallelism);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        String poolName = "ETL-pushdown-" + year;
+        ExecutorService pool = metrics.monitorExecutor(Executors.newFixedThreadPool(parallelism,
+                r -> new Thread(r, "ETL-pushdown-" + threadCount.incrementAndGet())), poolName);
+        try {
+            List<CompletableFuture<Long>> partitions = months.stream()
+                    .map(month -> CompletableFuture.supplyAsync(() -> {
+                        progress.checkCancelled();
+                        long start = System.nanoTime();
+                        long rows = table != null
+                                ? pushDownRepo.loadMonth(table, year, month)
+                                : pushDownRepo.loadMonth(year, month);
+                        long elapsed = System.nanoTime() - start;
+                        long elapsedMs = elapsed / 1_000_000;
+                        metrics.recordStage(EtlMetrics.PUSH_DOWN, rows, elapsed);
+                        progress.addProcessed(rows);
+                        log.info("Month {}/{}: {} rows in {} ms ({} rows/sec)", year, month, rows, elapsedMs,
+                                elapsedMs > 0 ? rows * 1000 / elapsedMs : rows);
+                        return rows;
+                    }, pool))
+                    .toList();
+
+            long loaded = 0;
+            List<String> failed = new ArrayList<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                try {
+                    loaded += partitions.get(i).join();
+                } catch (CompletionException e) {
+                    failed.add(months.get(i));
+                    log.error("Month {}/{} failed: {}", year, months.get(i), e.getCause().getMessage());
+                }
             }
+            if (!failed.isEmpty()) {
+                throw new ETLException("Push-down failed for months " + failed + " of year " + year);
+            }
+            return loaded;
+        } finally {
+            pool.shutdownNow();
+            metrics.unbindExecutor(poolName);
+        }
+    }
 
-            // Wait for all chunks to complete
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    // Re-runs only the chunks of a job that are missing or failed; DONE chunks are kept
+    public long resume(Long jobId) {
+        EtlJobEntity job = checkpoints.getJob(jobId);
+        if (job.getYear() == null) {
+            throw new ETLException("ETL job " + jobId + " is not a single-year job");
+        }
+        log.info("Resuming ETL job {} for year: {}", jobId, job.getYear());
+        StopWatch watch = new StopWatch();
+        watch.start();
+        long loaded = 0;
 
-        } catch (Exception e) {
-            log.error("ETL process failed for year: {}", year, e);
-            throw new ETLException("ETL process failed: " + e.getMessage());
+        boolean succeeded = false;
+        try {
+            loaded = loadChunks(job, checkpoints.reopenJob(job), new EtlProgress());
+            aggregates.rebuildAfterCommit(List.of(Integer.parseInt(job.getYear())));
+            succeeded = true;
+            return loaded;
         } finally {
             watch.stop();
-            log.info("ETL process completed in {} seconds", watch.getTotalTimeSeconds());
+            metrics.recordRun("resume", ETLMode.TWO_PASS, loaded, watch.getTotalTimeNanos(), succeeded);
+            log.info("ETL job {} resumed in {} seconds ({} fact rows, {} rows/sec)",
+                    jobId, watch.getTotalTimeSeconds(), loaded, rowsPerSecond(loaded, watch));
+        }
+    }
+
+    private long loadChunks(EtlJobEntity job, List<EtlChunkEntity> chunks, EtlProgress progress) {
+        String year = job.getYear();
+        log.info("Loading {} chunks of job {}", chunks.size(), job.getJobId());
+
+        // Dimensions come from the shared cache snapshot, no reload per run
+        DimensionLookup dimensions = dimensionCache.current().getLookup();
+
+        Map<IdRange, EtlChunkEntity> chunksByRange = chunks.stream()
+                .collect(Collectors.toMap(EtlChunkEntity::toRange, Function.identity()));
+        Throwable error = null;
+        try {
+            // Read, transform and write run as separate stages joined by bounded queues;
+            // each range is written and marked DONE in its own transaction
+            return pipelines.runByRange("job-" + job.getJobId(), progress,
+                    chunks.stream().map(EtlChunkEntity::toRange).toList(),
+                    (range, consumer) -> sourceReader.streamByYearInIdRange(year, range.getAfterId(), range.getToId(), consumer),
+                    source -> factMapper.map(source, dimensions),
+                    (range, sourceRows, facts) -> checkpoints.commitChunk(chunksByRange.get(range),
+                            sourceRows, facts.size(), () -> factSinks.get().write(facts)));
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            checkpoints.finishJob(job.getJobId(), error);
         }
     }
 
+    // Reads the year once: unseen dimension values are saved while facts are mapped
+    private long runSinglePass(String year, EtlProgress progress) {
+        factPartitions.truncateYear(Integer.parseInt(year));
+
+        DimensionResolver dimensions = new DimensionResolver(dimensionUpserts, dimensionCache.current().newLookup());
+        List<FactExportThEntity> batch = new ArrayList<>(BATCH_SIZE);
+        AtomicInteger batchNumber = new AtomicInteger(0);
+        // Reads are interleaved with the transform here, so only transform and load are timed
+        AtomicLong transformNanos = new AtomicLong();
+
+        long records = sourceReader.streamByYear(year, source -> {
+            long start = System.nanoTime();
+            dimensions.resolve(source);
+            batch.add(factMapper.map(source, dimensions.getLookup()));
+            transformNanos.addAndGet(System.nanoTime() - start);
+            if (batch.size() >= BATCH_SIZE) {
+                flushSinglePassBatch(batch, batchNumber.incrementAndGet(), transformNanos, progress);
+            }
+        });
+        if (!batch.isEmpty()) {
+            flushSinglePassBatch(batch, batchNumber.incrementAndGet(), transformNanos, progress);
+        }
+
+        log.info("Single pass processed {} records in {} batches. New dimensions added: HS2={}, HS4={}, Countries={}",
+                records, batchNumber.get(), dimensions.getNewHs2Count(),
+                dimensions.getNewHs4Count(), dimensions.getNewCountryCount());
+        if (dimensions.getNewHs2Count() + dimensions.getNewHs4Count() + dimensions.getNewCountryCount() > 0) {
+            dimensionCache.refreshAfterCommit();
+        }
+        return records;
+    }
+
+    private void flushSinglePassBatch(List<FactExportThEntity> batch, int batchNumber, AtomicLong transformNanos,
+                                      EtlProgress progress) {
+        progress.checkCancelled();
+        metrics.recordStage(EtlMetrics.TRANSFORM, batch.size(), transformNanos.getAndSet(0));
+        // New dimensions and facts go out in the same flush; clear keeps the persistence context small
+        factSinks.get().write(batch);
+        entityManager.flush();
+        entityManager.clear();
+        progress.addProcessed(batch.size());
+        log.info("Processed batch {} ({} records)", batchNumber, batch.size());
+        batch.clear();
+    }
+
     private void clearTables() {
         log.info("Starting to clear tables...");
 
@@ -176,127 +376,21 @@ public class ETLService {
     private void extractAndSaveDimensions(String year) {
         log.info("Starting dimension extraction for year: {}", year);
 
-        // Get existing dimensions to check for duplicates
-        Set<Integer> existingHs2Codes = hs2Repo.findAll().stream()
-                .map(DimHs2Entity::getHs2dg)
-                .collect(Collectors.toSet());
-
-        Set<Integer> existingHs4Codes = hs4Repo.findAll().stream()
-                .map(DimHs4Entity::getHs4dg)
-                .collect(Collectors.toSet());
-
-        Set<String> existingCountries = countryRepo.findAll().stream()
-                .map(DimCountryEntity::getCountry)
-                .collect(Collectors.toSet());
-
-        // Sets for new dimensions
-        Set<DimHs2Entity> newHs2Dimensions = new HashSet<>();
-        Set<DimHs4Entity> newHs4Dimensions = new HashSet<>();
-        Set<DimCountryEntity> newCountryDimensions = new HashSet<>();
-
-        try (Stream<ExportThEntity> stream = sourceRepo.streamAllByYear(year)) {
-            stream.forEach(source -> {
-                // Extract HS2 Dimensions if not exists
-                if (!existingHs2Codes.contains(source.getHs2dg())) {
-                    DimHs2Entity hs2 = new DimHs2Entity();
-                    hs2.setHs2dg(source.getHs2dg());
-                    hs2.setDescription(source.getDescriptionHs2dg());
-                    newHs2Dimensions.add(hs2);
-                    existingHs2Codes.add(source.getHs2dg()); // Add to existing set to prevent duplicates within the same batch
-                }
-
-                // Extract HS4 Dimensions if not exists
-                if (!existingHs4Codes.contains(source.getHs4dg())) {
-                    DimHs4Entity hs4 = new DimHs4Entity();
-                    hs4.setHs4dg(source.getHs4dg());
-                    hs4.setDescription(source.getDescriptionHs4dg());
-                    newHs4Dimensions.add(hs4);
-                    existingHs4Codes.add(source.getHs4dg());
-                }
-
-                // Extract Country Dimensions if not exists
-                if (!existingCountries.contains(source.getCountry())) {
-                    DimCountryEntity country = new DimCountryEntity();
-                    country.setCountry(source.getCountry());
-                    newCountryDimensions.add(country);
-                    existingCountries.add(source.getCountry());
-                }
-            });
-        }
-
-        // Save only new dimensions to tables
-        if (!newHs2Dimensions.isEmpty()) {
-            log.info("Saving {} new HS2 dimensions", newHs2Dimensions.size());
-            hs2Repo.saveAll(newHs2Dimensions);
-        } else {
-            log.info("No new HS2 dimensions to save");
-        }
-
-        if (!newHs4Dimensions.isEmpty()) {
-            log.info("Saving {} new HS4 dimensions", newHs4Dimensions.size());
-            hs4Repo.saveAll(newHs4Dimensions);
-        } else {
-            log.info("No new HS4 dimensions to save");
-        }
-
-        if (!newCountryDimensions.isEmpty()) {
-            log.info("Saving {} new country dimensions", newCountryDimensions.size());
-            countryRepo.saveAll(newCountryDimensions);
-        } else {
-            log.info("No new country dimensions to save");
+        // MySQL finds and inserts the missing values; nothing is diffed in the JVM
+        for (DimensionType type : DimensionType.values()) {
+            long start = System.nanoTime();
+            int added = dimensionUpserts.upsertFromSource(type, year);
+            metrics.recordStage(EtlMetrics.DIMENSIONS, added, System.nanoTime() - start);
+            log.info("Saved {} new {} dimensions", added, type);
         }
+        dimensionCache.refreshAfterCommit();
 
         log.info("Completed dimension extraction and save");
     }
 
-    private CompletableFuture<Void> processChunk(String year, int offset, int limit,
-                                                 Map<Integer, DimHs2Entity> hs2Map,
-                                                 Map<Integer, DimHs4Entity> hs4Map,
-                                                 Map<String, DimCountryEntity> countryMap) {
-        return CompletableFuture.runAsync(() -> {
-            log.info("Starting to process chunk at offset {} with limit {}", offset, limit);//
-            List<ExportThEntity> records = sourceRepo.findByYearWithPagination(year, offset, limit);
-
-            List<List<ExportThEntity>> batches = Lists.partition(records, BATCH_SIZE);//
-
-            log.info("Processing {} records in {} batches for offset {}",
-                    records.size(), batches.size(), offset);//
-
-//            // Process in smaller sub-batches
-//            for (List<ExportThEntity> batch : Lists.partition(records, BATCH_SIZE)) {
-//                try {
-//                    List<FactExportThEntity> facts = batch.stream()
-//                            .map(source -> mapToFact(source, hs2Map, hs4Map, countryMap))
-//                            .collect(Collectors.toList());
-//
-//                    // Retry logic for saving
-//                    retry(() -> factRepo.saveAll(facts), 3);
-//
-//
-//                } catch (Exception e) {
-//                    log.error("Error processing batch at offset {}: {}", offset, e.getMessage());
-//                }
-//            }
-
-            // Process each batch once
-            for (int i = 0; i < batches.size(); i++) {
-                List<ExportThEntity> batch = batches.get(i);
-                try {
-                    List<FactExportThEntity> facts = batch.stream()
-                            .map(source -> mapToFact(source, hs2Map, hs4Map, countryMap))
-                            .collect(Collectors.toList());
-
-                    factRepo.saveAll(facts);
-                    log.info("Processed batch {}/{} ({} records) at offset {}",
-                            i + 1, batches.size(), batch.size(), offset);
-                } catch (Exception e) {
-                    log.error("Error processing batch {}/{} at offset {}: {}",
-                            i + 1, batches.size(), offset, e.getMessage());
-                }
-            }
-
-            log.info("Completed processing chunk at offset {}", offset);
-        }, executorService);
+    private long rowsPerSecond(long rows, StopWatch watch) {
+        double seconds = watch.getTotalTimeSeconds();
+        return seconds > 0 ? Math.round(rows / seconds) : rows;
     }
 
     private <T> T retry(Supplier<T> operation, int maxAttempts) {
@@ -366,53 +460,12 @@ public class ETLService {
         }
     }
 
-    private FactExportThEntity mapToFact(ExportThEntity source,
-                                         Map<Integer, DimHs2Entity> hs2Map,
-                                         Map<Integer, DimHs4Entity> hs4Map,
-                                         Map<String, DimCountryEntity> countryMap) {
-        FactExportThEntity fact = new FactExportThEntity();
-
-        // Get dimension entities
-        DimCountryEntity country = countryMap.get(source.getCountry());
-        DimHs2Entity hs2 = hs2Map.get(source.getHs2dg());
-        DimHs4Entity hs4 = hs4Map.get(source.getHs4dg());
-
-        // Set IDs instead of entity references
-        fact.setCountryId(country != null ? country.getCountryId() : null);
-        fact.setHs2Id(hs2 != null ? hs2.getHs2Id() : null);
-        fact.setHs4Id(hs4 != null ? hs4.getHs4Id() : null);
-
-        // Set other fields
-        fact.setThaipValue(parseValue(source.getThaipValue()));
-        fact.setDollarValue(parseValue(source.getDollarValue()));
-        fact.setSize(source.getSize());
-        fact.setMonth(Integer.parseInt(source.getMonth()));
-        fact.setYear(Integer.parseInt(source.getYear()));
-
-        return fact;
-    }
-
 
 
 
 
     //---------------------------------------/-/--
 
-    private Map<Integer, DimHs2Entity> loadHs2Map() {
-        return hs2Repo.findAll().stream()
-                .collect(Collectors.toMap(DimHs2Entity::getHs2dg, Function.identity()));
-    }
-
-    private Map<Integer, DimHs4Entity> loadHs4Map() {
-        return hs4Repo.findAll().stream()
-                .collect(Collectors.toMap(DimHs4Entity::getHs4dg, Function.identity()));
-    }
-
-    private Map<String, DimCountryEntity> loadCountryMap() {
-        return countryRepo.findAll().stream()
-                .collect(Collectors.toMap(DimCountryEntity::getCountry, Function.identity()));
-    }
-
 //    @Transactional
 //    protected void processRecords(String year,
 //                                  Map<Integer, DimHs2Entity> hs2Map,
@@ -492,18 +545,6 @@ public class ETLService {
 //    }
 
 
-    private BigDecimal parseValue(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        String cleaned = value.replaceAll("[^\\d.]", "");
-        try {
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            return BigDecimal.ZERO;
-        }
-    }
-
     public long getRecordCountForYear(String year) {
         return factRepo.countByYear(Integer.parseInt(year));
     }
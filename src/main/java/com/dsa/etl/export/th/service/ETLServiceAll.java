@@ -1,9 +1,15 @@
 package com.dsa.etl.export.th.service;
 
 import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.config.EtlProperties;
+import com.dsa.etl.export.th.model.dto.IdRange;
+import com.dsa.etl.export.th.model.dto.YearLoadResult;
 import com.dsa.etl.export.th.model.entities.*;
+import com.dsa.etl.export.th.model.enums.DimensionType;
+import com.dsa.etl.export.th.model.enums.ETLMode;
 import com.dsa.etl.export.th.repository.*;
 import com.google.common.collect.Lists;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
@@ -20,6 +26,10 @@ import java.sql.Statement;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -29,10 +39,21 @@ import java.util.stream.Collectors;
 @Transactional
 public class ETLServiceAll {
     private final ExportThRepository sourceRepo;
+    private final ExportThJdbcReader sourceReader;
     private final DimHs2Repository hs2Repo;
     private final DimHs4Repository hs4Repo;
     private final DimCountryRepository countryRepo;
     private final FactExportThRepository factRepo;
+    private final FactMapper factMapper;
+    private final DimensionUpsertRepository dimensionUpserts;
+    private final FactSinkSelector factSinks;
+    private final EtlPipelineFactory pipelines;
+    private final EtlCheckpointService checkpoints;
+    private final FactPartitionRepository factPartitions;
+    private final FactAggregateService aggregates;
+    private final EtlMetrics metrics;
+    private final EtlProperties properties;
+    private final DimensionCache dimensionCache;
     private final DataSource dataSource;
     private static final int MAX_CONCURRENT_CHUNKS = 4;  // Reduce from default
     private final ClearTableService clearTableService;
@@ -41,45 +62,246 @@ public class ETLServiceAll {
     private final EntityManager entityManager;
 
     public void performETL() {  // removed year parameter
-        log.info("Starting ETL process for all records");
+        performETL(ETLMode.TWO_PASS);
+    }
+
+    public void performETL(ETLMode mode) {
+        performETL(mode, new EtlProgress());
+    }
+
+    public void performETL(ETLMode mode, EtlProgress progress) {
+        log.info("Starting {} ETL process for all records", mode);
         StopWatch watch = new StopWatch();
         watch.start();
+        long loaded = 0;
+        boolean succeeded = false;
 
         try {
 //            // Clear tables
 //            clearTables();
+            progress.setTotal(sourceRepo.count());
+            // Every source year needs its fact partition before rows arrive
+            List<Integer> years = sourceYears();
+            factPartitions.ensurePartitions(years);
+            loaded = switch (mode) {
+                case SINGLE_PASS -> runSinglePass(years, progress);
+                // push-down is partitioned by month within a year; run it through ETLService per year
+                case PUSH_DOWN, SHADOW -> throw new ETLException(mode + " mode needs a year");
+                default -> runTwoPass(years, progress);
+            };
+            aggregates.rebuildAfterCommit(years);
+            succeeded = true;
+        } catch (Exception e) {
+            log.error("ETL process failed: {}", e.getMessage(), e);
+            throw new ETLException("ETL process failed: " + e.getMessage());
+        } finally {
+            watch.stop();
+            metrics.recordRun("all", mode, loaded, watch.getTotalTimeNanos(), succeeded);
+            log.info("ETL process completed in {} seconds ({} fact rows, {} rows/sec)",
+                    watch.getTotalTimeSeconds(), loaded, rowsPerSecond(loaded, watch));
+        }
+    }
 
-            // First extract and save dimensions
-            log.info("Extracting dimensions...");
+    private long runTwoPass(List<Integer> years, EtlProgress progress) {
+        // Dimensions commit up front; chunks commit on their own and must not
+        // depend on an outer transaction that could still roll back
+        log.info("Extracting dimensions...");
+        checkpoints.inNewTransaction(() -> {
             extractAndSaveDimensions();
+            return null;
+        });
+
+        // Fan out: every year is its own job over its own partition, loaded by its own
+        // pipeline, with as many years in flight as the connection pool can carry
+        int parallelism = yearParallelism(years.size());
+        log.info("Loading {} years, {} at a time", years.size(), parallelism);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = metrics.monitorExecutor(Executors.newFixedThreadPool(parallelism,
+                r -> new Thread(r, "ETL-year-" + threadCount.incrementAndGet())), "ETL-year");
+        List<YearLoadResult> results;
+        try {
+            List<CompletableFuture<YearLoadResult>> loads = years.stream()
+                    .map(year -> CompletableFuture.supplyAsync(() -> loadYear(year, progress), pool))
+                    .toList();
+            results = loads.stream().map(CompletableFuture::join).toList();
+        } finally {
+            pool.shutdownNow();
+            metrics.unbindExecutor("ETL-year");
+        }
 
-            // Extract dimensions and load maps
-            Map<Integer, DimHs2Entity> hs2Map = loadHs2Map();
-            Map<Integer, DimHs4Entity> hs4Map = loadHs4Map();
-            Map<String, DimCountryEntity> countryMap = loadCountryMap();
+        for (YearLoadResult result : results) {
+            log.info("Year {}: job {}, {} chunks, {} rows in {} ms ({} rows/sec){}", result.getYear(),
+                    result.getJobId(), result.getChunks(), result.getRows(), result.getElapsedMillis(),
+                    result.getRowsPerSecond(), result.isSucceeded() ? "" : ", failed: " + result.getError());
+        }
+        List<Integer> failed = results.stream()
+                .filter(result -> !result.isSucceeded())
+                .map(YearLoadResult::getYear)
+                .toList();
+        if (!failed.isEmpty()) {
+            throw new ETLException("ETL failed for years " + failed + "; resume their jobs to finish them");
+        }
+        return results.stream().mapToLong(YearLoadResult::getRows).sum();
+    }
 
-            // Get total count for all records
-            long totalRecords = sourceRepo.count();  // count all records
-            int chunkSize = 5000;
-            int totalChunks = (int) Math.ceil((double) totalRecords / chunkSize);
+    // Resets the year's partition, plans keyset chunks over the year and loads them;
+    // failures are reported in the result so the other years keep going
+    private YearLoadResult loadYear(int year, EtlProgress progress) {
+        long start = System.nanoTime();
+        EtlJobEntity job = null;
+        int chunks = 0;
+        long rows = 0;
+        String error = null;
+        try {
+            progress.checkCancelled();
+            factPartitions.truncateYear(year);
+            List<IdRange> ranges = sourceRepo.planChunksByYear(String.valueOf(year),
+                    properties.getPipeline().getBatchSize());
+            chunks = ranges.size();
+            job = checkpoints.createJob(String.valueOf(year), ranges);
+            rows = loadChunks(job, checkpoints.unfinishedChunks(job.getJobId()), progress);
+        } catch (RuntimeException e) {
+            log.error("Year {} failed: {}", year, e.getMessage(), e);
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
 
-            log.info("Processing {} total records in {} chunks", totalRecords, totalChunks);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordRun("all-year", ETLMode.TWO_PASS, rows, elapsed, error == null);
+        long elapsedMs = elapsed / 1_000_000;
+        return YearLoadResult.builder()
+                .year(year)
+                .jobId(job != null ? job.getJobId() : null)
+                .chunks(chunks)
+                .rows(rows)
+                .elapsedMillis(elapsedMs)
+                .rowsPerSecond(elapsedMs > 0 ? rows * 1000 / elapsedMs : rows)
+                .error(error)
+                .build();
+    }
 
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
-            for (int i = 0; i < totalChunks; i++) {
-                int offset = i * chunkSize;
-                futures.add(processChunk(offset, chunkSize, hs2Map, hs4Map, countryMap));
+    // Each year's pipeline holds a streaming connection per reader and one per busy writer
+    private int yearParallelism(int years) {
+        EtlProperties.AllYears config = properties.getAllYears();
+        if (config.getParallelism() > 0) {
+            return Math.max(1, Math.min(config.getParallelism(), years));
+        }
+        EtlProperties.Pipeline pipeline = properties.getPipeline();
+        int perYear = pipeline.getReaders() + pipeline.getWriters();
+        int available = poolSize() - config.getReservedConnections();
+        return Math.max(1, Math.min(years, available / perYear));
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
             }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size: {}", e.getMessage());
+        }
+        return 10;  // Hikari's default
+    }
 
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    // Re-runs only the chunks of a job that are missing or failed; DONE chunks are kept
+    public long resume(Long jobId) {
+        EtlJobEntity job = checkpoints.getJob(jobId);
+        if (job.getYear() != null) {
+            throw new ETLException("ETL job " + jobId + " is a single-year job");
+        }
+        log.info("Resuming ETL job {} for all records", jobId);
+        StopWatch watch = new StopWatch();
+        watch.start();
+        long loaded = 0;
 
-        } catch (Exception e) {
-            log.error("ETL process failed: {}", e.getMessage(), e);
-            throw new ETLException("ETL process failed: " + e.getMessage());
+        boolean succeeded = false;
+        try {
+            loaded = loadChunks(job, checkpoints.reopenJob(job), new EtlProgress());
+            aggregates.rebuildAfterCommit(sourceYears());
+            succeeded = true;
+            return loaded;
         } finally {
             watch.stop();
-            log.info("ETL process completed in {} seconds", watch.getTotalTimeSeconds());
+            metrics.recordRun("all-resume", ETLMode.TWO_PASS, loaded, watch.getTotalTimeNanos(), succeeded);
+            log.info("ETL job {} resumed in {} seconds ({} fact rows, {} rows/sec)",
+                    jobId, watch.getTotalTimeSeconds(), loaded, rowsPerSecond(loaded, watch));
+        }
+    }
+
+    private long loadChunks(EtlJobEntity job, List<EtlChunkEntity> chunks, EtlProgress progress) {
+        log.info("Loading {} chunks of job {}", chunks.size(), job.getJobId());
+
+        // Dimensions come from the shared cache snapshot, no reload per run
+        DimensionLookup dimensions = dimensionCache.current().getLookup();
+
+        Map<IdRange, EtlChunkEntity> chunksByRange = chunks.stream()
+                .collect(Collectors.toMap(EtlChunkEntity::toRange, Function.identity()));
+        Throwable error = null;
+        try {
+            // Read, transform and write run as separate stages joined by bounded queues;
+            // each range is written and marked DONE in its own transaction
+            return pipelines.runByRange("job-" + job.getJobId(), progress,
+                    chunks.stream().map(EtlChunkEntity::toRange).toList(),
+                    // Per-year jobs filter their ranges on the year; old whole-table jobs read every row
+                    (range, consumer) -> job.getYear() != null
+                            ? sourceReader.streamByYearInIdRange(job.getYear(), range.getAfterId(), range.getToId(), consumer)
+                            : sourceReader.streamInIdRange(range.getAfterId(), range.getToId(), consumer),
+                    source -> factMapper.map(source, dimensions),
+                    (range, sourceRows, facts) -> checkpoints.commitChunk(chunksByRange.get(range),
+                            sourceRows, facts.size(), () -> factSinks.get().write(facts)));
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            checkpoints.finishJob(job.getJobId(), error);
+        }
+    }
+
+    // Reads the table once: unseen dimension values are saved while facts are mapped.
+    // A row that cannot be mapped fails the run, as in ETLService's single pass.
+    private long runSinglePass(List<Integer> years, EtlProgress progress) {
+        // Clear existing data: every source year's partition is truncated, as in TWO_PASS
+        years.forEach(factPartitions::truncateYear);
+
+        DimensionResolver dimensions = new DimensionResolver(dimensionUpserts, dimensionCache.current().newLookup());
+        List<FactExportThEntity> batch = new ArrayList<>(BATCH_SIZE);
+        AtomicLong loaded = new AtomicLong();
+        // Reads are interleaved with the transform here, so only transform and load are timed
+        AtomicLong transformNanos = new AtomicLong();
+
+        long records = sourceReader.streamAll(source -> {
+            long start = System.nanoTime();
+            dimensions.resolve(source);
+            batch.add(factMapper.map(source, dimensions.getLookup()));
+            transformNanos.addAndGet(System.nanoTime() - start);
+            if (batch.size() >= BATCH_SIZE) {
+                flushSinglePassBatch(batch, loaded, transformNanos, progress);
+            }
+        });
+        flushSinglePassBatch(batch, loaded, transformNanos, progress);
+
+        log.info("Single pass processed {} records. New dimensions added: HS2={}, HS4={}, Countries={}",
+                records, dimensions.getNewHs2Count(), dimensions.getNewHs4Count(), dimensions.getNewCountryCount());
+        if (dimensions.getNewHs2Count() + dimensions.getNewHs4Count() + dimensions.getNewCountryCount() > 0) {
+            dimensionCache.refreshAfterCommit();
+        }
+        return loaded.get();
+    }
+
+    private void flushSinglePassBatch(List<FactExportThEntity> batch, AtomicLong loaded, AtomicLong transformNanos,
+                                      EtlProgress progress) {
+        if (batch.isEmpty()) {
+            return;
         }
+        progress.checkCancelled();
+        metrics.recordStage(EtlMetrics.TRANSFORM, batch.size(), transformNanos.getAndSet(0));
+        // New dimensions and facts go out in the same flush; clear keeps the persistence context small
+        factSinks.get().write(batch);
+        entityManager.flush();
+        entityManager.clear();
+        loaded.addAndGet(batch.size());
+        progress.addProcessed(batch.size());
+        batch.clear();
     }
 
 //    private void extractAndSaveDimensions() {
@@ -175,166 +397,28 @@ public class ETLServiceAll {
     private void extractAndSaveDimensions() {
         log.info("Starting dimension extraction");
 
-        // Get existing dimensions first
-        Set<Integer> existingHs2 = new HashSet<>(hs2Repo.findAllHs2Codes());
-        Set<Integer> existingHs4 = new HashSet<>(hs4Repo.findAllHs4Codes());
-        Set<String> existingCountries = new HashSet<>(countryRepo.findAllCountries());
-
-        List<DimHs2Entity> hs2Batch = new ArrayList<>();
-        List<DimHs4Entity> hs4Batch = new ArrayList<>();
-        List<DimCountryEntity> countryBatch = new ArrayList<>();
-
-        Set<Integer> processedHs2 = new HashSet<>(existingHs2);  // Initialize with existing
-        Set<Integer> processedHs4 = new HashSet<>(existingHs4);  // Initialize with existing
-        Set<String> processedCountries = new HashSet<>(existingCountries);  // Initialize with existing
-
-        int offset = 0;
-        int limit = 500000;
-        int batchSize = 500000;
-        List<ExportThEntity> chunk;
-
-        try {
-            do {
-                chunk = sourceRepo.findAllWithPagination(offset, limit);
-                int chunkSize = chunk.size();
-                if (chunkSize > 0) {
-                    log.info("Processing chunk of {} records starting from offset {}", chunkSize, offset);
-                }
-
-                for (ExportThEntity source : chunk) {
-                    try {
-                        // HS2 Dimensions
-                        if (source.getHs2dg() != null && !processedHs2.contains(source.getHs2dg())) {
-                            DimHs2Entity hs2 = new DimHs2Entity();
-                            hs2.setHs2dg(source.getHs2dg());
-                            hs2.setDescription(source.getDescriptionHs2dg());
-                            hs2Batch.add(hs2);
-                            processedHs2.add(source.getHs2dg());
-
-                            if (hs2Batch.size() >= batchSize) {
-                                saveHs2Batch(hs2Batch);
-                            }
-                        }
-
-                        // HS4 Dimensions
-                        if (source.getHs4dg() != null && !processedHs4.contains(source.getHs4dg())) {
-                            DimHs4Entity hs4 = new DimHs4Entity();
-                            hs4.setHs4dg(source.getHs4dg());
-                            hs4.setDescription(source.getDescriptionHs4dg());
-                            hs4Batch.add(hs4);
-                            processedHs4.add(source.getHs4dg());
-
-                            if (hs4Batch.size() >= batchSize) {
-                                saveHs4Batch(hs4Batch);
-                            }
-                        }
-
-                        // Country Dimensions
-                        if (source.getCountry() != null && !processedCountries.contains(source.getCountry())) {
-                            DimCountryEntity country = new DimCountryEntity();
-                            country.setCountry(source.getCountry());
-                            countryBatch.add(country);
-                            processedCountries.add(source.getCountry());
-
-                            if (countryBatch.size() >= batchSize) {
-                                saveCountryBatch(countryBatch);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.error("Error processing record: {}", source, e);
-                    }
-                }
-
-                offset += limit;
-                log.info("Processed {} records for dimension extraction", offset);
-
-            } while (!chunk.isEmpty());
-
-            // Save remaining batches
-            saveHs2Batch(hs2Batch);
-            saveHs4Batch(hs4Batch);
-            saveCountryBatch(countryBatch);
-
-            log.info("Completed dimension extraction and save. New dimensions added: HS2={}, HS4={}, Countries={}",
-                    processedHs2.size() - existingHs2.size(),
-                    processedHs4.size() - existingHs4.size(),
-                    processedCountries.size() - existingCountries.size());
-
-        } catch (Exception e) {
-            log.error("Error during dimension extraction", e);
-            throw new RuntimeException("Failed to extract dimensions", e);
+        // MySQL finds and inserts the missing values; nothing is diffed in the JVM
+        for (DimensionType type : DimensionType.values()) {
+            long start = System.nanoTime();
+            int added = dimensionUpserts.upsertFromSource(type, null);
+            metrics.recordStage(EtlMetrics.DIMENSIONS, added, System.nanoTime() - start);
+            log.info("Saved {} new {} dimensions", added, type);
         }
-    }
+        dimensionCache.refreshAfterCommit();
 
-    @Transactional
-    protected void saveHs2Batch(List<DimHs2Entity> batch) {
-        if (!batch.isEmpty()) {
-            try {
-                hs2Repo.saveAll(batch);
-                log.info("Saved batch of {} HS2 dimensions", batch.size());
-                batch.clear();
-            } catch (Exception e) {
-                log.error("Error saving HS2 batch", e);
-                throw e;
-            }
-        }
+        log.info("Completed dimension extraction and save");
     }
 
-    @Transactional
-    protected void saveHs4Batch(List<DimHs4Entity> batch) {
-        if (!batch.isEmpty()) {
-            try {
-                hs4Repo.saveAll(batch);
-                log.info("Saved batch of {} HS4 dimensions", batch.size());
-                batch.clear();
-            } catch (Exception e) {
-                log.error("Error saving HS4 batch", e);
-                throw e;
-            }
-        }
-    }
-
-    @Transactional
-    protected void saveCountryBatch(List<DimCountryEntity> batch) {
-        if (!batch.isEmpty()) {
-            try {
-                countryRepo.saveAll(batch);
-                log.info("Saved batch of {} country dimensions", batch.size());
-                batch.clear();
-            } catch (Exception e) {
-                log.error("Error saving country batch", e);
-                throw e;
-            }
-        }
+    private List<Integer> sourceYears() {
+        return sourceRepo.findDistinctYears().stream()
+                .filter(Objects::nonNull)
+                .map(Integer::parseInt)
+                .toList();
     }
 
-    private CompletableFuture<Void> processChunk(int offset, int limit,
-                                                 Map<Integer, DimHs2Entity> hs2Map,
-                                                 Map<Integer, DimHs4Entity> hs4Map,
-                                                 Map<String, DimCountryEntity> countryMap) {
-        return CompletableFuture.runAsync(() -> {
-            List<ExportThEntity> records = sourceRepo.findAllWithPagination(offset, limit);  // modified method
-            List<FactExportThEntity> facts = new ArrayList<>(records.size());
-
-            records.forEach(source -> {
-                try {
-                    facts.add(mapToFact(source, hs2Map, hs4Map, countryMap));
-                } catch (Exception e) {
-                    log.error("Error processing record: {}", source, e);
-                }
-            });
-
-            // Save in batches
-            Lists.partition(facts, BATCH_SIZE).forEach(batch -> {
-                try {
-                    factRepo.saveAll(batch);
-                } catch (Exception e) {
-                    log.error("Error saving batch at offset {}", offset, e);
-                }
-            });
-
-            log.info("Processed chunk of {} records at offset {}", records.size(), offset);
-        }, executorService);
+    private long rowsPerSecond(long rows, StopWatch watch) {
+        double seconds = watch.getTotalTimeSeconds();
+        return seconds > 0 ? Math.round(rows / seconds) : rows;
     }
 
     private void clearTables() {
@@ -377,59 +461,6 @@ public class ETLServiceAll {
         }
     }
 
-    private FactExportThEntity mapToFact(ExportThEntity source,
-                                         Map<Integer, DimHs2Entity> hs2Map,
-                                         Map<Integer, DimHs4Entity> hs4Map,
-                                         Map<String, DimCountryEntity> countryMap) {
-        FactExportThEntity fact = new FactExportThEntity();
-
-        // Get dimension entities
-        DimCountryEntity country = countryMap.get(source.getCountry());
-        DimHs2Entity hs2 = hs2Map.get(source.getHs2dg());
-        DimHs4Entity hs4 = hs4Map.get(source.getHs4dg());
-
-        // Set IDs instead of entity references
-        fact.setCountryId(country != null ? country.getCountryId() : null);
-        fact.setHs2Id(hs2 != null ? hs2.getHs2Id() : null);
-        fact.setHs4Id(hs4 != null ? hs4.getHs4Id() : null);
-
-        // Set other fields
-        fact.setThaipValue(parseValue(source.getThaipValue()));
-        fact.setDollarValue(parseValue(source.getDollarValue()));
-        fact.setSize(source.getSize());
-        fact.setMonth(Integer.parseInt(source.getMonth()));
-        fact.setYear(Integer.parseInt(source.getYear()));
-
-        return fact;
-    }
-
-    private Map<Integer, DimHs2Entity> loadHs2Map() {
-        return hs2Repo.findAll().stream()
-                .collect(Collectors.toMap(DimHs2Entity::getHs2dg, Function.identity()));
-    }
-
-    private Map<Integer, DimHs4Entity> loadHs4Map() {
-        return hs4Repo.findAll().stream()
-                .collect(Collectors.toMap(DimHs4Entity::getHs4dg, Function.identity()));
-    }
-
-    private Map<String, DimCountryEntity> loadCountryMap() {
-        return countryRepo.findAll().stream()
-                .collect(Collectors.toMap(DimCountryEntity::getCountry, Function.identity()));
-    }
-
-
-    private BigDecimal parseValue(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        String cleaned = value.replaceAll("[^\\d.]", "");
-        try {
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            return BigDecimal.ZERO;
-        }
-    }
 
     public long getRecordCountForYear(String year) {
         return factRepo.countByYear(Integer.parseInt(year));
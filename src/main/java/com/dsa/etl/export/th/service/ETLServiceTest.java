@@ -2,6 +2,7 @@ package com.dsa.etl.export.th.service;
 
 import com.dsa.etl.export.th.exception.ETLException;
 import com.dsa.etl.export.th.model.entities.*;
+import com.dsa.etl.export.th.model.enums.DimensionType;
 import com.dsa.etl.export.th.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,11 @@ public class ETLServiceTest {
     private final DimHs4Repository hs4Repo;
     private final DimCountryRepository countryRepo;
     private final FactExportThRepository factRepo;
+    private final ValueParser valueParser;
+    private final DimensionUpsertRepository dimensionUpserts;
+    private final DimensionCache dimensionCache;
+    private final FactSinkSelector factSinks;
+    private final FactPartitionRepository factPartitions;
 
     private static final int BATCH_SIZE = 1000;
 
@@ -51,7 +57,7 @@ public class ETLServiceTest {
 
     private void clearExistingDataForYear(String year) {
         log.info("Clearing existing data for year {}...", year);
-        factRepo.deleteByYear(Integer.parseInt(year));
+        factPartitions.truncateYear(Integer.parseInt(year));
         // Don't clear dimensions as they might be referenced by other years
     }
 
@@ -60,33 +66,11 @@ public class ETLServiceTest {
         try {
             log.info("Extracting dimensions for year {}...", year);
 
-            Set<DimHs2Entity> hs2Dimensions = new HashSet<>();
-            Set<DimHs4Entity> hs4Dimensions = new HashSet<>();
-            Set<DimCountryEntity> countryDimensions = new HashSet<>();
-
-            try (Stream<ExportThEntity> stream = sourceRepo.streamAllByYear(year)) {
-                stream.forEach(source -> {
-                    // HS2 Dimension
-                    DimHs2Entity hs2 = new DimHs2Entity();
-                    hs2.setHs2dg(source.getHs2dg());
-                    hs2.setDescription(source.getDescriptionHs2dg());
-                    hs2Dimensions.add(hs2);
-
-                    // HS4 Dimension
-                    DimHs4Entity hs4 = new DimHs4Entity();
-                    hs4.setHs4dg(source.getHs4dg());
-                    hs4.setDescription(source.getDescriptionHs4dg());
-                    hs4Dimensions.add(hs4);
-
-                    // Country Dimension
-                    DimCountryEntity country = new DimCountryEntity();
-                    country.setCountry(source.getCountry());
-                    countryDimensions.add(country);
-                });
+            // Save dimensions (merge with existing) with one set-based upsert per table
+            for (DimensionType type : DimensionType.values()) {
+                dimensionUpserts.upsertFromSource(type, year);
             }
-
-            // Save dimensions (merge with existing)
-            mergeAndSaveDimensions(hs2Dimensions, hs4Dimensions, countryDimensions);
+            dimensionCache.refreshAfterCommit();
 
         } catch (Exception e) {
             log.error("Failed to extract dimensions for year: {}", year, e);
@@ -94,31 +78,6 @@ public class ETLServiceTest {
         }
     }
 
-    private void mergeAndSaveDimensions(Set<DimHs2Entity> hs2Dimensions,
-                                        Set<DimHs4Entity> hs4Dimensions,
-                                        Set<DimCountryEntity> countryDimensions) {
-        // Merge HS2 dimensions
-        for (DimHs2Entity hs2 : hs2Dimensions) {
-            if (!hs2Repo.existsByHs2dg(hs2.getHs2dg())) {
-                hs2Repo.save(hs2);
-            }
-        }
-
-        // Merge HS4 dimensions
-        for (DimHs4Entity hs4 : hs4Dimensions) {
-            if (!hs4Repo.existsByHs4dg(hs4.getHs4dg())) {
-                hs4Repo.save(hs4);
-            }
-        }
-
-        // Merge country dimensions
-        for (DimCountryEntity country : countryDimensions) {
-            if (!countryRepo.existsByCountry(country.getCountry())) {
-                countryRepo.save(country);
-            }
-        }
-    }
-
     @Transactional
     protected void extractFacts(String year) {
         AtomicInteger count = new AtomicInteger(0);
@@ -131,7 +90,7 @@ public class ETLServiceTest {
                     batchList.add(fact);
 
                     if (batchList.size() >= BATCH_SIZE) {
-                        factRepo.saveAll(batchList);
+                        factSinks.get().write(batchList);
                         log.info("Processed {} records for year {}", count.addAndGet(batchList.size()), year);
                         batchList.clear();
                     }
@@ -141,7 +100,7 @@ public class ETLServiceTest {
             });
 
             if (!batchList.isEmpty()) {
-                factRepo.saveAll(batchList);
+                factSinks.get().write(batchList);
                 log.info("Processed final {} records for year {}", count.addAndGet(batchList.size()), year);
             }
         }
@@ -165,8 +124,8 @@ public class ETLServiceTest {
 //            fact.setHs4(hs4);
 
             // Transform values
-            fact.setThaipValue(parseValue(source.getThaipValue()));
-            fact.setDollarValue(parseValue(source.getDollarValue()));
+            fact.setThaipValue(valueParser.parse(source.getThaipValue()));
+            fact.setDollarValue(valueParser.parse(source.getDollarValue()));
             fact.setSize(source.getSize());
             fact.setMonth(parseInteger(source.getMonth(), "month"));
             fact.setYear(parseInteger(source.getYear(), "year"));
@@ -179,19 +138,6 @@ public class ETLServiceTest {
         }
     }
 
-    private BigDecimal parseValue(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        String cleaned = value.replaceAll("[^\\d.]", "");
-        try {
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            log.warn("Invalid numeric value: {}, using 0", value);
-            return BigDecimal.ZERO;
-        }
-    }
-
     private Integer parseInteger(String value, String fieldName) {
         try {
             return Integer.parseInt(value.trim());
@@ -0,0 +1,161 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.config.EtlProperties;
+import com.dsa.etl.export.th.model.dto.EtlBenchmarkReport;
+import com.dsa.etl.export.th.model.dto.EtlBenchmarkResult;
+import com.dsa.etl.export.th.model.enums.ETLMode;
+import com.dsa.etl.export.th.repository.ExportThRepository;
+import com.dsa.etl.export.th.repository.FactExportThRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// End-to-end throughput runs against a throwaway database (bench profile only):
+//   ./mvnw spring-boot:run -Dspring-boot.run.profiles=bench
+// Fills export_th with synthetic rows if needed, runs every configured mode per year
+// through ETLService and over the whole table through ETLServiceAll, and writes rows/sec,
+// peak heap and GC time of each run to etl.bench.output as JSON.
+@Component
+@Profile("bench")
+@Slf4j
+@RequiredArgsConstructor
+public class EtlBenchmarkRunner implements ApplicationRunner {
+    private final EtlProperties properties;
+    private final SyntheticExportThGenerator generator;
+    private final ExportThRepository sourceRepo;
+    private final FactExportThRepository factRepo;
+    private final ClearTableService clearTableService;
+    private final ETLService etlService;
+    private final ETLServiceAll etlServiceAll;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        EtlProperties.Bench bench = properties.getBench();
+        String startedAt = Instant.now().toString();
+
+        long sourceRows = sourceRepo.count();
+        if (bench.isRegenerate() || sourceRows != bench.getRows()) {
+            sourceRows = generator.generate(bench.getRows(), bench.getYears(), bench.getSeed());
+        }
+
+        List<EtlBenchmarkResult> results = new ArrayList<>();
+        for (ETLMode mode : bench.getModes()) {
+            // Every mode starts from empty dimension and fact tables
+            clearTableService.clearAllTables();
+            for (Integer year : bench.getYears()) {
+                results.add(measure("year", mode, year,
+                        () -> etlService.performETL(String.valueOf(year), mode),
+                        () -> factRepo.countByYear(year)));
+            }
+        }
+        if (bench.isIncludeAll()) {
+            for (ETLMode mode : bench.getModes()) {
+                if (mode != ETLMode.TWO_PASS && mode != ETLMode.SINGLE_PASS) {
+                    continue;  // ETLServiceAll needs a year for the push-down modes
+                }
+                clearTableService.clearAllTables();
+                results.add(measure("all", mode, null, () -> etlServiceAll.performETL(mode), factRepo::count));
+            }
+        }
+
+        EtlProperties.Pipeline pipeline = properties.getPipeline();
+        EtlBenchmarkReport report = EtlBenchmarkReport.builder()
+                .startedAt(startedAt)
+                .javaVersion(Runtime.version().toString())
+                .availableProcessors(Runtime.getRuntime().availableProcessors())
+                .maxHeapBytes(Runtime.getRuntime().maxMemory())
+                .sourceRows(sourceRows)
+                .seed(bench.getSeed())
+                .factSink(properties.getFactSink().name())
+                .pipelineReaders(pipeline.getReaders())
+                .pipelineTransformers(pipeline.getTransformers())
+                .pipelineWriters(pipeline.getWriters())
+                .pipelineBatchSize(pipeline.getBatchSize())
+                .results(results)
+                .build();
+
+        Path output = Path.of(bench.getOutput());
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        log.info("Wrote {} benchmark results to {}", results.size(), output.toAbsolutePath());
+
+        if (bench.isExitWhenDone()) {
+            boolean failed = results.stream().anyMatch(result -> !result.isSucceeded());
+            System.exit(SpringApplication.exit(context, () -> failed ? 1 : 0));
+        }
+    }
+
+    private EtlBenchmarkResult measure(String scope, ETLMode mode, Integer year, Runnable run, LongSupplier rows) {
+        // Start every run from a collected heap with fresh peaks
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+
+        log.info("Benchmark run: {} {} {}", scope, mode, year != null ? year : "");
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            run.run();
+        } catch (RuntimeException e) {
+            log.error("Benchmark run {} {} {} failed", scope, mode, year, e);
+            error = e.getMessage();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        long loaded = rows.getAsLong();
+        EtlBenchmarkResult result = EtlBenchmarkResult.builder()
+                .scope(scope)
+                .mode(mode.name())
+                .year(year)
+                .rows(loaded)
+                .elapsedMillis(elapsedMs)
+                .rowsPerSecond(elapsedMs > 0 ? loaded * 1000 / elapsedMs : loaded)
+                .peakHeapBytes(heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum())
+                .gcCount(gcCount() - gcCountBefore)
+                .gcMillis(gcMillis() - gcMillisBefore)
+                .succeeded(error == null)
+                .error(error)
+                .build();
+        log.info("Benchmark result: {}", result);
+        return result;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(gc -> Math.max(0, gc.getCollectionCount()))
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .map(time -> Math.max(0, time))
+                .sum();
+    }
+}
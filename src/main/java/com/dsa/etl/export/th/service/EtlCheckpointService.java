@@ -0,0 +1,160 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.dto.ETLStatus;
+import com.dsa.etl.export.th.model.dto.IdRange;
+import com.dsa.etl.export.th.model.entities.EtlChunkEntity;
+import com.dsa.etl.export.th.model.entities.EtlJobEntity;
+import com.dsa.etl.export.th.model.enums.ETLProcessStatus;
+import com.dsa.etl.export.th.model.enums.EtlChunkStatus;
+import com.dsa.etl.export.th.repository.EtlChunkRepository;
+import com.dsa.etl.export.th.repository.EtlJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Job and chunk bookkeeping for two-pass runs. Everything here commits in its own
+// transaction, independent of whatever transaction the caller is in.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EtlCheckpointService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EtlJobRepository jobRepo;
+    private final EtlChunkRepository chunkRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    public <T> T inNewTransaction(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template.execute(status -> work.get());
+    }
+
+    public EtlJobEntity createJob(String year, List<IdRange> ranges) {
+        return inNewTransaction(() -> {
+            EtlJobEntity job = jobRepo.save(EtlJobEntity.builder()
+                    .year(year)
+                    .status(ETLProcessStatus.IN_PROGRESS)
+                    .totalChunks(ranges.size())
+                    .startedAt(LocalDateTime.now())
+                    .build());
+            chunkRepo.saveAll(ranges.stream()
+                    .map(range -> EtlChunkEntity.builder()
+                            .jobId(job.getJobId())
+                            .afterId(range.getAfterId())
+                            .toId(range.getToId())
+                            .status(EtlChunkStatus.PENDING)
+                            .build())
+                    .toList());
+            log.info("Created ETL job {} for {} with {} chunks", job.getJobId(), scope(year), ranges.size());
+            return job;
+        });
+    }
+
+    public EtlJobEntity getJob(Long jobId) {
+        return jobRepo.findById(jobId)
+                .orElseThrow(() -> new ETLException("ETL job not found: " + jobId));
+    }
+
+    public List<ETLStatus> getRecentStatuses() {
+        return jobRepo.findTop20ByOrderByJobIdDesc().stream()
+                .map(job -> getStatus(job.getJobId()))
+                .toList();
+    }
+
+    // Marks a job as running again and returns the chunks that are still missing or failed
+    public List<EtlChunkEntity> reopenJob(EtlJobEntity job) {
+        return inNewTransaction(() -> {
+            job.setStatus(ETLProcessStatus.IN_PROGRESS);
+            job.setFinishedAt(null);
+            job.setErrorMessage(null);
+            jobRepo.save(job);
+            return unfinishedChunks(job.getJobId());
+        });
+    }
+
+    public List<EtlChunkEntity> unfinishedChunks(Long jobId) {
+        return chunkRepo.findByJobIdAndStatusNotOrderByAfterId(jobId, EtlChunkStatus.DONE);
+    }
+
+    // Writes the chunk's facts and marks it DONE in one transaction; on failure the
+    // facts roll back and the chunk is marked FAILED so a resume picks it up again.
+    // A chunk with fewer facts than source rows lost rows in the transform and fails too.
+    public void commitChunk(EtlChunkEntity chunk, int sourceRows, int rows, Runnable write) {
+        try {
+            if (rows < sourceRows) {
+                throw new ETLException((sourceRows - rows) + " of " + sourceRows + " rows failed to transform");
+            }
+            inNewTransaction(() -> {
+                write.run();
+                chunkRepo.updateStatus(chunk.getChunkId(), EtlChunkStatus.DONE, rows, null, LocalDateTime.now());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Chunk {} of job {} (ids {}..{}) failed: {}", chunk.getChunkId(), chunk.getJobId(),
+                    chunk.getAfterId(), chunk.getToId(), e.getMessage());
+            inNewTransaction(() -> chunkRepo.updateStatus(chunk.getChunkId(), EtlChunkStatus.FAILED, 0,
+                    truncate(e.getMessage()), LocalDateTime.now()));
+            throw e;
+        }
+    }
+
+    public EtlJobEntity finishJob(Long jobId, Throwable error) {
+        return inNewTransaction(() -> {
+            EtlJobEntity job = getJob(jobId);
+            long done = chunkRepo.countByJobIdAndStatus(jobId, EtlChunkStatus.DONE);
+            if (done == job.getTotalChunks()) {
+                job.setStatus(ETLProcessStatus.COMPLETED);
+            } else {
+                job.setStatus(error != null ? ETLProcessStatus.FAILED : ETLProcessStatus.PARTIALLY_COMPLETED);
+            }
+            job.setLoadedRows(chunkRepo.sumRowCountByJobIdAndStatus(jobId, EtlChunkStatus.DONE));
+            job.setFinishedAt(LocalDateTime.now());
+            job.setErrorMessage(error != null ? truncate(error.getMessage()) : null);
+            log.info("ETL job {} {}: {}/{} chunks done, {} rows loaded",
+                    jobId, job.getStatus(), done, job.getTotalChunks(), job.getLoadedRows());
+            return jobRepo.save(job);
+        });
+    }
+
+    public ETLStatus getStatus(Long jobId) {
+        EtlJobEntity job = getJob(jobId);
+        long done = chunkRepo.countByJobIdAndStatus(jobId, EtlChunkStatus.DONE);
+        long failed = chunkRepo.countByJobIdAndStatus(jobId, EtlChunkStatus.FAILED);
+        return ETLStatus.builder()
+                .processId(String.valueOf(jobId))
+                .status(job.getStatus())
+                .startTime(job.getStartedAt())
+                .endTime(job.getFinishedAt())
+                .processedRecords(chunkRepo.sumRowCountByJobIdAndStatus(jobId, EtlChunkStatus.DONE))
+                .errorMessage(job.getErrorMessage())
+                .progressPercentage(job.getTotalChunks() > 0 ? done * 100.0 / job.getTotalChunks() : 100.0)
+                .additionalInfo(Map.of(
+                        "year", scope(job.getYear()),
+                        "totalChunks", String.valueOf(job.getTotalChunks()),
+                        "doneChunks", String.valueOf(done),
+                        "failedChunks", String.valueOf(failed),
+                        "pendingChunks", String.valueOf(job.getTotalChunks() - done - failed)))
+                .build();
+    }
+
+    private String scope(String year) {
+        return year != null ? year : "ALL";
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,100 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.dto.PipelineStats;
+import com.dsa.etl.export.th.model.enums.ETLMode;
+import com.dsa.etl.export.th.model.enums.FactSinkType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Micrometer meters for ETL runs. The stage timers show where a slow run spends its time:
+// extract (source reads), transform (mapToFact), load (fact sink writes), dimensions
+// (upserts) and push-down (INSERT ... SELECT per month). rows/sec is the rate of the
+// matching etl.stage.rows counter.
+@Component
+@RequiredArgsConstructor
+public class EtlMetrics {
+    public static final String EXTRACT = "extract";
+    public static final String TRANSFORM = "transform";
+    public static final String LOAD = "load";
+    public static final String DIMENSIONS = "dimensions";
+    public static final String PUSH_DOWN = "push-down";
+
+    private final MeterRegistry registry;
+
+    public void recordStage(String stage, long rows, long nanos) {
+        Timer.builder("etl.stage.duration")
+                .description("Time spent in one unit of work of an ETL stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        registry.counter("etl.stage.rows", "stage", stage).increment(rows);
+    }
+
+    // One fact sink write: batch size and latency per sink type
+    public void recordBatch(FactSinkType sink, int size, long nanos) {
+        DistributionSummary.builder("etl.batch.size")
+                .baseUnit("rows")
+                .tag("sink", sink.name())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(size);
+        Timer.builder("etl.batch.duration")
+                .tag("sink", sink.name())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRun(String scope, ETLMode mode, long rows, long nanos, boolean succeeded) {
+        Timer.builder("etl.run.duration")
+                .tag("scope", scope)
+                .tag("mode", mode.name())
+                .tag("outcome", succeeded ? "success" : "failure")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        registry.counter("etl.run.rows", "scope", scope, "mode", mode.name()).increment(rows);
+    }
+
+    // Micrometer's executor.* meters (active threads, queued tasks, pool size, task timers) for
+    // a pool created for one run, tagged name=<name>; use the returned pool in its place
+    public ExecutorService monitorExecutor(ExecutorService pool, String name) {
+        return ExecutorServiceMetrics.monitor(registry, pool, name);
+    }
+
+    // Removes a finished pool's meters, otherwise they keep reporting the dead pool
+    public void unbindExecutor(String name) {
+        registry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith("executor")
+                        && name.equals(meter.getId().getTag("name")))
+                .forEach(registry::remove);
+    }
+
+    // Queue depths summed over the pipelines running right now
+    public void bindPipelines(Supplier<List<PipelineStats>> activePipelines) {
+        Gauge.builder("etl.pipeline.active", () -> activePipelines.get().size())
+                .register(registry);
+        queueGauge(activePipelines, "rows", PipelineStats::getRowQueueDepth);
+        queueGauge(activePipelines, "facts", PipelineStats::getFactQueueDepth);
+    }
+
+    private void queueGauge(Supplier<List<PipelineStats>> activePipelines, String queue,
+                            ToIntFunction<PipelineStats> depth) {
+        Gauge.builder("etl.pipeline.queue.depth",
+                        () -> activePipelines.get().stream().mapToInt(depth).sum())
+                .tag("queue", queue)
+                .baseUnit("batches")
+                .register(registry);
+    }
+}
@@ -0,0 +1,308 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.config.EtlProperties;
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import com.dsa.etl.export.th.model.dto.IdRange;
+import com.dsa.etl.export.th.model.dto.PipelineStats;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Staged ETL run: readers stream id ranges into row batches, transformers map them
+// to facts and writers hand fact batches to the sink. The stages are connected by
+// bounded queues, so a slow writer blocks the readers instead of filling the heap.
+@Slf4j
+public class EtlPipeline {
+    // End-of-stream markers, compared by identity
+    private static final Batch<ExportThRow> END_OF_ROWS = new Batch<>(null, List.of(), 0);
+    private static final Batch<FactExportThEntity> END_OF_FACTS = new Batch<>(null, List.of(), 0);
+
+    @FunctionalInterface
+    public interface RangeReader {
+        long read(IdRange range, Consumer<ExportThRow> consumer);
+    }
+
+    // sourceRows is the number of rows read for the batch; fewer facts means some failed to transform
+    @FunctionalInterface
+    public interface RangeWriter {
+        void write(IdRange range, int sourceRows, List<FactExportThEntity> facts);
+    }
+
+    @Getter
+    private final String name;
+    private final EtlProperties.Pipeline config;
+    private final EtlProgress progress;
+    private final EtlMetrics metrics;
+    private final BlockingQueue<Batch<ExportThRow>> rowQueue;
+    private final BlockingQueue<Batch<FactExportThEntity>> factQueue;
+
+    private final LongAdder readRows = new LongAdder();
+    private final LongAdder transformedRows = new LongAdder();
+    private final LongAdder writtenRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final List<ExecutorService> pools = new CopyOnWriteArrayList<>();
+    private final List<String> poolNames = new CopyOnWriteArrayList<>();
+
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile boolean running;
+
+    public EtlPipeline(String name, EtlProperties.Pipeline config, EtlProgress progress, EtlMetrics metrics) {
+        this.name = name;
+        this.config = config;
+        this.progress = progress;
+        this.metrics = metrics;
+        this.rowQueue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.factQueue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    // Runs all ranges through the stages and returns the number of rows written
+    public long run(List<IdRange> ranges,
+                    RangeReader reader,
+                    Function<ExportThRow, FactExportThEntity> transformer,
+                    Consumer<List<FactExportThEntity>> writer) {
+        return run(ranges, reader, transformer, (range, sourceRows, facts) -> writer.accept(facts), false);
+    }
+
+    // Same, but every range reaches the writer as exactly one batch so it can be committed as a unit
+    public long runByRange(List<IdRange> ranges,
+                           RangeReader reader,
+                           Function<ExportThRow, FactExportThEntity> transformer,
+                           RangeWriter writer) {
+        return run(ranges, reader, transformer, writer, true);
+    }
+
+    private long run(List<IdRange> ranges,
+                     RangeReader reader,
+                     Function<ExportThRow, FactExportThEntity> transformer,
+                     RangeWriter writer,
+                     boolean wholeRanges) {
+        startNanos = System.nanoTime();
+        running = true;
+        log.info("Pipeline {} starting: {} ranges, {} readers, {} transformers, {} writers, queue capacity {}",
+                name, ranges.size(), config.getReaders(), config.getTransformers(), config.getWriters(),
+                config.getQueueCapacity());
+
+        Queue<IdRange> pending = new ConcurrentLinkedQueue<>(ranges);
+        try {
+            List<Future<?>> readTasks = start("read", config.getReaders(), () -> readLoop(pending, reader, wholeRanges));
+            List<Future<?>> transformTasks = start("transform", config.getTransformers(), () -> transformLoop(transformer));
+            List<Future<?>> writeTasks = start("write", config.getWriters(), () -> writeLoop(writer));
+
+            await(readTasks);
+            signalEnd(rowQueue, END_OF_ROWS, config.getTransformers());
+            await(transformTasks);
+            signalEnd(factQueue, END_OF_FACTS, config.getWriters());
+            await(writeTasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(e);
+        } finally {
+            pools.forEach(ExecutorService::shutdownNow);
+            poolNames.forEach(metrics::unbindExecutor);
+            endNanos = System.nanoTime();
+            running = false;
+        }
+
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new ETLException("Pipeline " + name + " failed: " + cause.getMessage(), cause);
+        }
+        // The other batches were still written; the run fails so the failed ones are resumed, not lost
+        if (failedWrites.sum() > 0) {
+            throw new ETLException("Pipeline " + name + ": " + failedWrites.sum() + " batches failed to write");
+        }
+        // Rows that failed to transform were not loaded; a successful run would hide them
+        if (failedRows.sum() > 0) {
+            throw new ETLException("Pipeline " + name + ": " + failedRows.sum() + " rows failed to transform");
+        }
+        PipelineStats stats = getStats();
+        log.info("Pipeline {} finished in {} ms: read {} ({} rows/sec), transformed {}, written {} ({} rows/sec), failed {}",
+                name, stats.getElapsedMillis(), stats.getReadRows(), stats.getReadRowsPerSecond(),
+                stats.getTransformedRows(), stats.getWrittenRows(), stats.getWriteRowsPerSecond(),
+                stats.getFailedRows());
+        return writtenRows.sum();
+    }
+
+    public PipelineStats getStats() {
+        long elapsedNanos = (running ? System.nanoTime() : endNanos) - startNanos;
+        return PipelineStats.builder()
+                .name(name)
+                .running(running)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowQueueDepth(rowQueue.size())
+                .rowQueueCapacity(config.getQueueCapacity())
+                .factQueueDepth(factQueue.size())
+                .factQueueCapacity(config.getQueueCapacity())
+                .readRows(readRows.sum())
+                .transformedRows(transformedRows.sum())
+                .writtenRows(writtenRows.sum())
+                .failedRows(failedRows.sum())
+                .readRowsPerSecond(perSecond(readRows.sum(), elapsedNanos))
+                .transformRowsPerSecond(perSecond(transformedRows.sum(), elapsedNanos))
+                .writeRowsPerSecond(perSecond(writtenRows.sum(), elapsedNanos))
+                .build();
+    }
+
+    private void readLoop(Queue<IdRange> pending, RangeReader reader, boolean wholeRanges) {
+        IdRange range;
+        while ((range = pending.poll()) != null && failure.get() == null) {
+            progress.checkCancelled();
+            long start = System.nanoTime();
+            IdRange current = range;
+            List<List<ExportThRow>> batch = new ArrayList<>(1);
+            batch.add(new ArrayList<>(config.getBatchSize()));
+            long rows = reader.read(range, row -> {
+                batch.get(0).add(row);
+                if (!wholeRanges && batch.get(0).size() >= config.getBatchSize()) {
+                    progress.checkCancelled();
+                    put(rowQueue, new Batch<>(current, batch.get(0), batch.get(0).size()));
+                    batch.set(0, new ArrayList<>(config.getBatchSize()));
+                }
+            });
+            // A whole-range batch is sent even when empty so the writer still sees the range.
+            // Callers plan ranges of at most batch-size rows, which bounds the queued rows
+            if (wholeRanges && batch.get(0).size() > config.getBatchSize()) {
+                log.warn("Range up to id {} holds {} rows, more than the batch size {}",
+                        range.getToId(), batch.get(0).size(), config.getBatchSize());
+            }
+            if (wholeRanges || !batch.get(0).isEmpty()) {
+                put(rowQueue, new Batch<>(range, batch.get(0), batch.get(0).size()));
+            }
+            readRows.add(rows);
+            metrics.recordStage(EtlMetrics.EXTRACT, rows, System.nanoTime() - start);
+            log.info("Read chunk up to id {} ({} rows) in {} ms",
+                    range.getToId(), rows, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void transformLoop(Function<ExportThRow, FactExportThEntity> transformer) {
+        Batch<ExportThRow> rows;
+        while ((rows = take(rowQueue)) != END_OF_ROWS) {
+            long start = System.nanoTime();
+            List<FactExportThEntity> facts = new ArrayList<>(rows.getItems().size());
+            for (ExportThRow row : rows.getItems()) {
+                try {
+                    facts.add(transformer.apply(row));
+                } catch (Exception e) {
+                    failedRows.increment();
+                    progress.addFailed(1);
+                    log.error("Error processing record: {}", row, e);
+                }
+            }
+            transformedRows.add(facts.size());
+            metrics.recordStage(EtlMetrics.TRANSFORM, facts.size(), System.nanoTime() - start);
+            put(factQueue, new Batch<>(rows.getRange(), facts, rows.getSourceRows()));
+        }
+    }
+
+    private void writeLoop(RangeWriter writer) {
+        Batch<FactExportThEntity> facts;
+        while ((facts = take(factQueue)) != END_OF_FACTS) {
+            int size = facts.getItems().size();
+            try {
+                writer.write(facts.getRange(), facts.getSourceRows(), facts.getItems());
+                writtenRows.add(size);
+                progress.addProcessed(size);
+            } catch (Exception e) {
+                failedWrites.increment();
+                failedRows.add(size);
+                progress.addFailed(size);
+                log.error("Error writing batch of {} facts up to id {} in pipeline {}: {}",
+                        size, facts.getRange().getToId(), name, e.getMessage());
+            }
+        }
+    }
+
+    private List<Future<?>> start(String stage, int threads, Runnable loop) {
+        AtomicInteger counter = new AtomicInteger();
+        String poolName = "ETL-" + stage + "-" + name;
+        ExecutorService pool = metrics.monitorExecutor(Executors.newFixedThreadPool(threads,
+                r -> new Thread(r, "ETL-" + stage + "-" + counter.incrementAndGet())), poolName);
+        pools.add(pool);
+        poolNames.add(poolName);
+
+        List<Future<?>> tasks = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            tasks.add(pool.submit(() -> {
+                try {
+                    loop.run();
+                } catch (Throwable e) {
+                    abort(e);
+                }
+            }));
+        }
+        return tasks;
+    }
+
+    private void await(List<Future<?>> tasks) throws InterruptedException {
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException | CancellationException e) {
+                abort(e);
+            }
+        }
+    }
+
+    // The first failure stops every stage; blocked puts and takes are interrupted
+    private void abort(Throwable e) {
+        if (failure.compareAndSet(null, e instanceof ExecutionException ? e.getCause() : e)) {
+            log.error("Pipeline {} aborted", name, e);
+            pools.forEach(ExecutorService::shutdownNow);
+        }
+    }
+
+    private <T> void signalEnd(BlockingQueue<T> queue, T marker, int consumers) throws InterruptedException {
+        for (int i = 0; i < consumers && failure.get() == null; i++) {
+            while (!queue.offer(marker, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ETLException("Pipeline " + name + " interrupted", e);
+        }
+    }
+
+    private <T> T take(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ETLException("Pipeline " + name + " interrupted", e);
+        }
+    }
+
+    private static long perSecond(long rows, long nanos) {
+        return nanos > 0 ? Math.round(rows * 1e9 / nanos) : 0;
+    }
+
+    @Value
+    private static class Batch<T> {
+        IdRange range;
+        List<T> items;
+        int sourceRows;
+    }
+}
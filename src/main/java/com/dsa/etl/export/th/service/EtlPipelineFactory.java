@@ -0,0 +1,65 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.config.EtlProperties;
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import com.dsa.etl.export.th.model.dto.IdRange;
+import com.dsa.etl.export.th.model.dto.PipelineStats;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+@RequiredArgsConstructor
+public class EtlPipelineFactory {
+    private final EtlProperties properties;
+    private final EtlMetrics metrics;
+    private final Map<String, EtlPipeline> activePipelines = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void bindMetrics() {
+        metrics.bindPipelines(this::getActiveStats);
+    }
+
+    public long run(String name,
+                    EtlProgress progress,
+                    List<IdRange> ranges,
+                    EtlPipeline.RangeReader reader,
+                    Function<ExportThRow, FactExportThEntity> transformer,
+                    Consumer<List<FactExportThEntity>> writer) {
+        EtlPipeline pipeline = new EtlPipeline(name, properties.getPipeline(), progress, metrics);
+        activePipelines.put(name, pipeline);
+        try {
+            return pipeline.run(ranges, reader, transformer, writer);
+        } finally {
+            activePipelines.remove(name, pipeline);
+        }
+    }
+
+    public long runByRange(String name,
+                           EtlProgress progress,
+                           List<IdRange> ranges,
+                           EtlPipeline.RangeReader reader,
+                           Function<ExportThRow, FactExportThEntity> transformer,
+                           EtlPipeline.RangeWriter writer) {
+        EtlPipeline pipeline = new EtlPipeline(name, properties.getPipeline(), progress, metrics);
+        activePipelines.put(name, pipeline);
+        try {
+            return pipeline.runByRange(ranges, reader, transformer, writer);
+        } finally {
+            activePipelines.remove(name, pipeline);
+        }
+    }
+
+    public List<PipelineStats> getActiveStats() {
+        return activePipelines.values().stream()
+                .map(EtlPipeline::getStats)
+                .toList();
+    }
+}
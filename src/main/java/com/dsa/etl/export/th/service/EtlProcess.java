@@ -0,0 +1,26 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.enums.ETLMode;
+import com.dsa.etl.export.th.model.enums.ETLProcessStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// In-memory state of one submitted ETL run
+@Data
+class EtlProcess {
+    private final String processId;
+    private final String year;
+    private final ETLMode mode;
+    private final EtlProgress progress = new EtlProgress();
+    private volatile ETLProcessStatus status = ETLProcessStatus.NOT_STARTED;
+    private volatile LocalDateTime startTime;
+    private volatile LocalDateTime endTime;
+    private volatile String errorMessage;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    boolean isFinished() {
+        return endTime != null;
+    }
+}
@@ -0,0 +1,159 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.exception.EtlProcessConflictException;
+import com.dsa.etl.export.th.exception.EtlProcessNotFoundException;
+import com.dsa.etl.export.th.model.dto.ETLStatus;
+import com.dsa.etl.export.th.model.enums.ETLMode;
+import com.dsa.etl.export.th.model.enums.ETLProcessStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// Runs ETL in the background so callers get a process id at once and poll for progress
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EtlProcessService {
+    // Finished processes are kept this long for polling
+    private static final long RETENTION_HOURS = 24;
+
+    private final ETLService etlService;
+    private final ETLServiceAll etlServiceAll;
+    private final Executor executorService;
+    private final Map<String, EtlProcess> processes = new ConcurrentHashMap<>();
+
+    // year == null runs the whole table
+    public synchronized ETLStatus submit(String year, ETLMode mode) {
+        evictFinished();
+        // An all-years run reloads every year, so it overlaps with any other run
+        processes.values().stream()
+                .filter(p -> !p.isFinished() && (p.getYear() == null || year == null || p.getYear().equals(year)))
+                .findFirst()
+                .ifPresent(p -> {
+                    throw new EtlProcessConflictException("ETL for " + scope(year) + " overlaps ETL for " +
+                            scope(p.getYear()) + ", which is still running as process " + p.getProcessId());
+                });
+
+        EtlProcess process = new EtlProcess(UUID.randomUUID().toString(), year, mode);
+        processes.put(process.getProcessId(), process);
+        try {
+            executorService.execute(() -> run(process));
+        } catch (RejectedExecutionException e) {
+            processes.remove(process.getProcessId());
+            throw new ETLException("ETL executor is busy, try again later", e);
+        }
+        log.info("Submitted {} ETL process {} for {}", mode, process.getProcessId(), scope(year));
+        return toStatus(process);
+    }
+
+    public ETLStatus getStatus(String processId) {
+        return toStatus(getProcess(processId));
+    }
+
+    public List<ETLStatus> getStatuses() {
+        return processes.values().stream()
+                .sorted(Comparator.comparing(EtlProcess::getStartNanos).reversed())
+                .map(this::toStatus)
+                .toList();
+    }
+
+    // The run stops at its next batch boundary; batches already written stay written
+    public ETLStatus cancel(String processId) {
+        EtlProcess process = getProcess(processId);
+        if (!process.isFinished()) {
+            process.getProgress().cancel();
+            log.info("Cancelling ETL process {}", processId);
+        }
+        return toStatus(process);
+    }
+
+    private void run(EtlProcess process) {
+        process.setStartNanos(System.nanoTime());
+        process.setStartTime(LocalDateTime.now());
+        process.setStatus(ETLProcessStatus.IN_PROGRESS);
+        try {
+            process.getProgress().checkCancelled();
+            if (process.getYear() == null) {
+                etlServiceAll.performETL(process.getMode(), process.getProgress());
+            } else {
+                etlService.performETL(process.getYear(), process.getMode(), process.getProgress());
+            }
+            process.setStatus(process.getProgress().getFailed() > 0
+                    ? ETLProcessStatus.PARTIALLY_COMPLETED
+                    : ETLProcessStatus.COMPLETED);
+        } catch (Exception e) {
+            process.setErrorMessage(e.getMessage());
+            process.setStatus(process.getProgress().isCancelled()
+                    ? ETLProcessStatus.CANCELLED
+                    : ETLProcessStatus.FAILED);
+            log.error("ETL process {} ended with {}", process.getProcessId(), process.getStatus(), e);
+        } finally {
+            process.setEndNanos(System.nanoTime());
+            process.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    private EtlProcess getProcess(String processId) {
+        EtlProcess process = processes.get(processId);
+        if (process == null) {
+            throw new EtlProcessNotFoundException("ETL process not found: " + processId);
+        }
+        return process;
+    }
+
+    private ETLStatus toStatus(EtlProcess process) {
+        EtlProgress progress = process.getProgress();
+        long processed = progress.getProcessed();
+        long total = progress.getTotal();
+
+        Map<String, String> info = new HashMap<>();
+        info.put("year", scope(process.getYear()));
+        info.put("mode", process.getMode().name());
+        info.put("rowsPerSecond", String.valueOf(rowsPerSecond(process, processed)));
+        if (progress.isCancelled()) {
+            info.put("cancelRequested", "true");
+        }
+
+        return ETLStatus.builder()
+                .processId(process.getProcessId())
+                .status(process.getStatus())
+                .startTime(process.getStartTime())
+                .endTime(process.getEndTime())
+                .totalRecords(total)
+                .processedRecords(processed)
+                .failedRecords(progress.getFailed())
+                .errorMessage(process.getErrorMessage())
+                .progressPercentage(total > 0 ? Math.min(100.0, processed * 100.0 / total) : 0.0)
+                .additionalInfo(info)
+                .build();
+    }
+
+    private long rowsPerSecond(EtlProcess process, long processed) {
+        if (process.getStartTime() == null) {
+            return 0;
+        }
+        long end = process.isFinished() ? process.getEndNanos() : System.nanoTime();
+        long nanos = end - process.getStartNanos();
+        return nanos > 0 ? Math.round(processed * 1e9 / nanos) : 0;
+    }
+
+    private void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(RETENTION_HOURS);
+        processes.values().removeIf(p -> p.isFinished() && p.getEndTime().isBefore(cutoff));
+    }
+
+    private String scope(String year) {
+        return year != null ? year : "ALL";
+    }
+}
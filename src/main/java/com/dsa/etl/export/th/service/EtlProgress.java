@@ -0,0 +1,47 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Live counters of one ETL run, shared between the run and whoever polls it
+public class EtlProgress {
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Getter
+    @Setter
+    private volatile long total;
+
+    @Getter
+    private volatile boolean cancelled;
+
+    public void addProcessed(long rows) {
+        processed.add(rows);
+    }
+
+    public void addFailed(long rows) {
+        failed.add(rows);
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Called at batch boundaries so a cancelled run stops without leaving a half-written batch
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new ETLException("ETL process cancelled");
+        }
+    }
+}
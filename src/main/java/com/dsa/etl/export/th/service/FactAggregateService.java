@@ -0,0 +1,99 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.repository.FactAggregateRepository;
+import com.dsa.etl.export.th.repository.FactExportThRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+
+// Keeps agg_export_th_hs2 / agg_export_th_hs4 in step with the fact table. Only the
+// years an ETL run loaded are rebuilt, each in one transaction, so dashboard reads
+// see either the old or the new totals of a year.
+@Service
+@Slf4j
+public class FactAggregateService {
+    private final FactAggregateRepository aggregateRepo;
+    private final FactExportThRepository factRepo;
+    private final FactCube cube;
+    private final TransactionTemplate rebuildTransaction;
+
+    public FactAggregateService(FactAggregateRepository aggregateRepo,
+                                FactExportThRepository factRepo,
+                                FactCube cube,
+                                PlatformTransactionManager transactionManager) {
+        this.aggregateRepo = aggregateRepo;
+        this.factRepo = factRepo;
+        this.cube = cube;
+        // Must start after the run's fact chunks committed to see them
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Facts loaded before the aggregate tables existed are summed once at startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (aggregateRepo.count() == 0 && factRepo.count() > 0) {
+            log.info("Aggregate tables are empty, building them from the fact table");
+            rebuild(factRepo.findDistinctYears());
+        }
+    }
+
+    public void rebuild(Collection<Integer> years) {
+        for (Integer year : years) {
+            long start = System.nanoTime();
+            int[] rows = rebuildTransaction.execute(status -> {
+                aggregateRepo.deleteHs2ByYear(year);
+                aggregateRepo.deleteHs4ByYear(year);
+                return new int[]{aggregateRepo.insertHs2ByYear(year), aggregateRepo.insertHs4ByYear(year)};
+            });
+            log.info("Rebuilt aggregates of year {} ({} HS2 rows, {} HS4 rows) in {} ms",
+                    year, rows[0], rows[1], (System.nanoTime() - start) / 1_000_000);
+        }
+        // The in-memory cube follows the same years
+        cube.reload(years);
+    }
+
+    // Runs once the caller's transaction has committed its facts, or right away outside one
+    public void rebuildAfterCommit(Collection<Integer> years) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild(years);
+                }
+            });
+        } else {
+            rebuild(years);
+        }
+    }
+
+    // Like rebuildAfterCommit: the aggregates and the cube only go once the facts are gone
+    public void clearAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    public void clear() {
+        rebuildTransaction.executeWithoutResult(status -> {
+            aggregateRepo.deleteAllHs2();
+            aggregateRepo.deleteAllHs4();
+        });
+        cube.clear();
+    }
+}
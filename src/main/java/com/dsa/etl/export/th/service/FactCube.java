@@ -0,0 +1,199 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.dto.FactSummaryProjection;
+import com.dsa.etl.export.th.model.dto.FactSummaryRow;
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.repository.FactCubeRepository;
+import com.dsa.etl.export.th.repository.FactExportThRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+// In-memory columnar copy of the fact table, one FactCubeSlice per year, answering
+// the FactController analytics without touching MySQL. Slices are replaced whole
+// after an ETL run reloads their year; until the first full load isLoaded() is false
+// and callers use SQL instead.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FactCube {
+    private final FactCubeRepository cubeRepo;
+    private final FactExportThRepository factRepo;
+    private final DimensionCache dimensionCache;
+    private final Executor executorService;
+
+    private volatile Map<Integer, FactCubeSlice> slices = Map.of();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Loads in the background; SQL answers until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        executorService.execute(() -> {
+            try {
+                loadAll();
+            } catch (Exception e) {
+                log.error("Fact cube load failed, summaries stay on SQL", e);
+            }
+        });
+    }
+
+    public synchronized void loadAll() {
+        long start = System.nanoTime();
+        Map<Integer, FactCubeSlice> all = new HashMap<>();
+        for (Integer year : factRepo.findDistinctYears()) {
+            all.put(year, loadSlice(year));
+        }
+        slices = Map.copyOf(all);
+        loaded = true;
+        log.info("Fact cube loaded: {} years, {} rows in {} ms", all.size(),
+                all.values().stream().mapToInt(FactCubeSlice::getSize).sum(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Swaps in fresh slices for the given years only
+    public synchronized void reload(Collection<Integer> years) {
+        if (!loaded) {
+            loadAll();
+            return;
+        }
+        Map<Integer, FactCubeSlice> next = new HashMap<>(slices);
+        for (Integer year : years) {
+            FactCubeSlice slice = loadSlice(year);
+            if (slice.getSize() > 0) {
+                next.put(year, slice);
+            } else {
+                next.remove(year);
+            }
+        }
+        slices = Map.copyOf(next);
+    }
+
+    public synchronized void clear() {
+        slices = Map.of();
+    }
+
+    // month null means the whole year; sums are null when there are no facts, as in SQL
+    public BigDecimal sumThaipValue(Integer year, Integer month) {
+        FactCubeSlice.Groups totals = totals(year, month);
+        return totals != null ? totals.thaipValue(0) : null;
+    }
+
+    public BigDecimal sumDollarValue(Integer year, Integer month) {
+        FactCubeSlice.Groups totals = totals(year, month);
+        return totals != null ? totals.dollarValue(0) : null;
+    }
+
+    public long count(Integer year, Integer month) {
+        FactCubeSlice.Groups totals = totals(year, month);
+        return totals != null ? totals.count(0) : 0;
+    }
+
+    public List<Map<String, Object>> findTopCountriesByValue(Integer year, int limit) {
+        FactCubeSlice slice = slices.get(year);
+        if (slice == null) {
+            return List.of();
+        }
+        DimensionSnapshot dimensions = dimensionCache.current();
+        return topByName(slice.sumByCountry(0), "country", group -> {
+            DimCountryEntity country = dimensions.country(slice.countryId(group));
+            return country != null ? country.getCountry() : null;
+        }, limit);
+    }
+
+    public List<Map<String, Object>> findTopHS2ByValue(Integer year, int limit) {
+        FactCubeSlice slice = slices.get(year);
+        if (slice == null) {
+            return List.of();
+        }
+        DimensionSnapshot dimensions = dimensionCache.current();
+        return topByName(slice.sumByHs2(0), "category", group -> {
+            DimHs2Entity hs2 = dimensions.hs2(slice.hs2Id(group));
+            return hs2 != null ? hs2.getDescription() : null;
+        }, limit);
+    }
+
+    public List<FactSummaryProjection> findFactSummary(Integer year, Integer month, int limit) {
+        FactCubeSlice slice = slices.get(year);
+        if (slice == null) {
+            return List.of();
+        }
+        DimensionSnapshot dimensions = dimensionCache.current();
+        FactCubeSlice.Groups groups = slice.sumByCountryHs2(month != null ? month : 0);
+        int stride = slice.getHs2Cardinality() + 1;
+
+        // Same grouping as the SQL: by country name and HS2 description, missing dimensions as null
+        Map<List<String>, long[]> byName = new HashMap<>();
+        for (int group = 0; group < groups.size(); group++) {
+            if (groups.count(group) == 0) {
+                continue;
+            }
+            DimCountryEntity country = dimensions.country(slice.countryId(group / stride));
+            DimHs2Entity hs2 = dimensions.hs2(slice.hs2Id(group % stride));
+            List<String> key = Arrays.asList(country != null ? country.getCountry() : null,
+                    hs2 != null ? hs2.getDescription() : null);
+            long[] sums = byName.computeIfAbsent(key, k -> new long[3]);
+            sums[0] += groups.thaipCents(group);
+            sums[1] += groups.dollarCents(group);
+            sums[2] += groups.count(group);
+        }
+
+        return byName.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(limit)
+                .map(e -> (FactSummaryProjection) new FactSummaryRow(e.getKey().get(0), e.getKey().get(1),
+                        BigDecimal.valueOf(e.getValue()[0], 2), BigDecimal.valueOf(e.getValue()[1], 2),
+                        e.getValue()[2]))
+                .toList();
+    }
+
+    private FactCubeSlice.Groups totals(Integer year, Integer month) {
+        FactCubeSlice slice = slices.get(year);
+        if (slice == null) {
+            return null;
+        }
+        FactCubeSlice.Groups totals = slice.totals(month != null ? month : 0);
+        return totals.count(0) > 0 ? totals : null;
+    }
+
+    // Inner-join semantics: groups without a dimension name are left out
+    private List<Map<String, Object>> topByName(FactCubeSlice.Groups groups, String nameKey,
+                                                IntFunction<String> nameOf, int limit) {
+        Map<String, long[]> byName = new HashMap<>();
+        for (int group = 1; group < groups.size(); group++) {
+            String name = groups.count(group) > 0 ? nameOf.apply(group) : null;
+            if (name != null) {
+                long[] sums = byName.computeIfAbsent(name, k -> new long[2]);
+                sums[0] += groups.thaipCents(group);
+                sums[1] += groups.count(group);
+            }
+        }
+        return byName.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(limit)
+                .map(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put(nameKey, e.getKey());
+                    row.put("totalValue", BigDecimal.valueOf(e.getValue()[0], 2));
+                    row.put("recordCount", e.getValue()[1]);
+                    return row;
+                })
+                .toList();
+    }
+
+    private FactCubeSlice loadSlice(int year) {
+        FactCubeSlice.Builder builder = FactCubeSlice.builder(year);
+        cubeRepo.streamYear(year, builder::add);
+        return builder.build();
+    }
+}
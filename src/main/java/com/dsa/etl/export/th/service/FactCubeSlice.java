@@ -0,0 +1,258 @@
+package com.dsa.etl.export.th.service;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// One year of the fact grain (month, country, HS2, HS4) as primitive columns. The
+// dimension columns are dictionary codes into the id arrays, -1 for no dimension;
+// the measures are value * 100. Rows are sorted by month, so a month is a contiguous
+// row range. Immutable once built; scans split the rows into segments that run in
+// parallel and merge their partial sums.
+public final class FactCubeSlice {
+    private static final int SEGMENT_ROWS = 16_384;
+
+    @Getter
+    private final int year;
+    @Getter
+    private final int size;
+    private final byte[] month;
+    private final int[] country;
+    private final int[] hs2;
+    private final int[] hs4;
+    private final long[] thaipCents;
+    private final long[] dollarCents;
+    private final long[] count;
+
+    // code -> dimension id
+    private final long[] countryIds;
+    private final long[] hs2Ids;
+    private final long[] hs4Ids;
+
+    private FactCubeSlice(Builder b) {
+        this.year = b.year;
+        this.size = b.size;
+        this.month = Arrays.copyOf(b.month, b.size);
+        this.country = Arrays.copyOf(b.country, b.size);
+        this.hs2 = Arrays.copyOf(b.hs2, b.size);
+        this.hs4 = Arrays.copyOf(b.hs4, b.size);
+        this.thaipCents = Arrays.copyOf(b.thaipCents, b.size);
+        this.dollarCents = Arrays.copyOf(b.dollarCents, b.size);
+        this.count = Arrays.copyOf(b.count, b.size);
+        this.countryIds = b.countries.ids();
+        this.hs2Ids = b.hs2s.ids();
+        this.hs4Ids = b.hs4s.ids();
+    }
+
+    public static Builder builder(int year) {
+        return new Builder(year);
+    }
+
+    // month 0 means the whole year
+    public Groups totals(int month) {
+        return sumBy(month, null, 0, null, 1);
+    }
+
+    public Groups sumByCountry(int month) {
+        return sumBy(month, country, countryIds.length, null, 1);
+    }
+
+    public Groups sumByHs2(int month) {
+        return sumBy(month, hs2, hs2Ids.length, null, 1);
+    }
+
+    public Groups sumByHs4(int month) {
+        return sumBy(month, hs4, hs4Ids.length, null, 1);
+    }
+
+    // Group index is (countryCode + 1) * (hs2Cardinality + 1) + hs2Code + 1
+    public Groups sumByCountryHs2(int month) {
+        return sumBy(month, country, countryIds.length, hs2, hs2Ids.length + 1);
+    }
+
+    public int getHs2Cardinality() {
+        return hs2Ids.length;
+    }
+
+    // Group index -> dimension id; index 0 is the no-dimension bucket
+    public Long countryId(int group) {
+        return group > 0 ? countryIds[group - 1] : null;
+    }
+
+    public Long hs2Id(int group) {
+        return group > 0 ? hs2Ids[group - 1] : null;
+    }
+
+    public Long hs4Id(int group) {
+        return group > 0 ? hs4Ids[group - 1] : null;
+    }
+
+    private Groups sumBy(int month, int[] outer, int outerCardinality, int[] inner, int innerStride) {
+        int from = month == 0 ? 0 : firstRow(month);
+        int to = month == 0 ? size : firstRow(month + 1);
+        int groups = (outer == null ? 1 : outerCardinality + 1) * innerStride;
+        int segments = Math.max(1, (to - from + SEGMENT_ROWS - 1) / SEGMENT_ROWS);
+
+        return IntStream.range(0, segments)
+                .parallel()
+                .mapToObj(segment -> {
+                    int start = from + segment * SEGMENT_ROWS;
+                    int end = Math.min(to, start + SEGMENT_ROWS);
+                    Groups partial = new Groups(groups);
+                    for (int row = start; row < end; row++) {
+                        int group = outer == null ? 0 : (outer[row] + 1) * innerStride;
+                        if (inner != null) {
+                            group += inner[row] + 1;
+                        }
+                        partial.thaipCents[group] += thaipCents[row];
+                        partial.dollarCents[group] += dollarCents[row];
+                        partial.count[group] += count[row];
+                    }
+                    return partial;
+                })
+                .reduce(Groups::merge)
+                .orElseGet(() -> new Groups(groups));
+    }
+
+    // First row whose month is >= the given month
+    private int firstRow(int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (month[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Partial sums per group index
+    public static final class Groups {
+        private final long[] thaipCents;
+        private final long[] dollarCents;
+        private final long[] count;
+
+        private Groups(int groups) {
+            this.thaipCents = new long[groups];
+            this.dollarCents = new long[groups];
+            this.count = new long[groups];
+        }
+
+        private Groups merge(Groups other) {
+            for (int i = 0; i < count.length; i++) {
+                thaipCents[i] += other.thaipCents[i];
+                dollarCents[i] += other.dollarCents[i];
+                count[i] += other.count[i];
+            }
+            return this;
+        }
+
+        public int size() {
+            return count.length;
+        }
+
+        public long count(int group) {
+            return count[group];
+        }
+
+        public long thaipCents(int group) {
+            return thaipCents[group];
+        }
+
+        public long dollarCents(int group) {
+            return dollarCents[group];
+        }
+
+        public BigDecimal thaipValue(int group) {
+            return BigDecimal.valueOf(thaipCents[group], 2);
+        }
+
+        public BigDecimal dollarValue(int group) {
+            return BigDecimal.valueOf(dollarCents[group], 2);
+        }
+    }
+
+    // Collects rows in month order and encodes the dimension ids on the way
+    public static final class Builder {
+        private final int year;
+        private int size;
+        private byte[] month = new byte[1024];
+        private int[] country = new int[1024];
+        private int[] hs2 = new int[1024];
+        private int[] hs4 = new int[1024];
+        private long[] thaipCents = new long[1024];
+        private long[] dollarCents = new long[1024];
+        private long[] count = new long[1024];
+        private final Dictionary countries = new Dictionary();
+        private final Dictionary hs2s = new Dictionary();
+        private final Dictionary hs4s = new Dictionary();
+
+        private Builder(int year) {
+            this.year = year;
+        }
+
+        public Builder add(int monthValue, Long countryId, Long hs2Id, Long hs4Id,
+                           long thaip, long dollar, long rows) {
+            if (size > 0 && monthValue < month[size - 1]) {
+                throw new IllegalArgumentException("Cube rows must be added in month order");
+            }
+            if (size == month.length) {
+                grow();
+            }
+            month[size] = (byte) monthValue;
+            country[size] = countries.code(countryId);
+            hs2[size] = hs2s.code(hs2Id);
+            hs4[size] = hs4s.code(hs4Id);
+            thaipCents[size] = thaip;
+            dollarCents[size] = dollar;
+            count[size] = rows;
+            size++;
+            return this;
+        }
+
+        public FactCubeSlice build() {
+            return new FactCubeSlice(this);
+        }
+
+        private void grow() {
+            int capacity = month.length * 2;
+            month = Arrays.copyOf(month, capacity);
+            country = Arrays.copyOf(country, capacity);
+            hs2 = Arrays.copyOf(hs2, capacity);
+            hs4 = Arrays.copyOf(hs4, capacity);
+            thaipCents = Arrays.copyOf(thaipCents, capacity);
+            dollarCents = Arrays.copyOf(dollarCents, capacity);
+            count = Arrays.copyOf(count, capacity);
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private long[] ids = new long[64];
+
+        int code(Long id) {
+            if (id == null) {
+                return -1;
+            }
+            return codes.computeIfAbsent(id, key -> {
+                int code = codes.size();
+                if (code == ids.length) {
+                    ids = Arrays.copyOf(ids, code * 2);
+                }
+                ids[code] = key;
+                return code;
+            });
+        }
+
+        long[] ids() {
+            return Arrays.copyOf(ids, codes.size());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactExportFormat;
+import com.dsa.etl.export.th.repository.FactJdbcReader;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+// Writes facts with their dimension names straight from the database cursor to an
+// output stream. Memory stays constant: one row is in flight at a time and output
+// goes through a fixed-size buffer. Field names match FactDetailResponse.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FactExportService {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final String CSV_HEADER = "factId,country,hs2Code,hs2Description,hs4Code,hs4Description," +
+            "thaipValue,dollarValue,size,month,year\n";
+
+    private final FactJdbcReader factReader;
+    private final DimensionCache dimensionCache;
+    private final ObjectMapper objectMapper;
+
+    // Returns the number of rows written, or -1 when the client went away mid-download
+    public long export(Integer year, Integer month, FactExportFormat format, OutputStream target) {
+        long start = System.nanoTime();
+        DimensionSnapshot dimensions = dimensionCache.current();
+        long rows;
+        try {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(year, month, dimensions, target);
+                case CSV -> writeCsv(year, month, dimensions, target);
+            };
+        } catch (IOException | UncheckedIOException e) {
+            // Usually the client went away; the reader has cancelled the query. The response
+            // is already committed, so there is no one left to send an error to
+            log.warn("Fact export {}/{} aborted after {} ms: {}", year, month,
+                    (System.nanoTime() - start) / 1_000_000, e.getMessage());
+            return -1;
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Exported {} facts of {}/{} as {} in {} ms ({} rows/sec)", rows, year, month, format, elapsedMs,
+                elapsedMs > 0 ? rows * 1000 / elapsedMs : rows);
+        return rows;
+    }
+
+    private long writeNdjson(Integer year, Integer month, DimensionSnapshot dimensions, OutputStream target)
+            throws IOException {
+        // The caller owns the target (it may be a gzip stream that still needs finishing)
+        BufferedOutputStream buffered = new BufferedOutputStream(target, BUFFER_BYTES);
+        JsonFactory factory = objectMapper.getFactory();
+        long rows;
+        try (JsonGenerator json = factory.createGenerator(buffered)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            rows = factReader.streamFacts(year, month, fact -> {
+                try {
+                    writeJson(json, fact, dimensions);
+                    json.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        buffered.flush();
+        return rows;
+    }
+
+    private void writeJson(JsonGenerator json, FactExportThEntity fact, DimensionSnapshot dimensions)
+            throws IOException {
+        DimCountryEntity country = dimensions.country(fact.getCountryId());
+        DimHs2Entity hs2 = dimensions.hs2(fact.getHs2Id());
+        DimHs4Entity hs4 = dimensions.hs4(fact.getHs4Id());
+
+        json.writeStartObject();
+        json.writeNumberField("factId", fact.getId());
+        json.writeStringField("country", country != null ? country.getCountry() : null);
+        json.writeStringField("hs2Code", hs2 != null ? String.valueOf(hs2.getHs2dg()) : null);
+        json.writeStringField("hs2Description", hs2 != null ? hs2.getDescription() : null);
+        json.writeStringField("hs4Code", hs4 != null ? String.valueOf(hs4.getHs4dg()) : null);
+        json.writeStringField("hs4Description", hs4 != null ? hs4.getDescription() : null);
+        writeDecimal(json, "thaipValue", fact.getThaipValue());
+        writeDecimal(json, "dollarValue", fact.getDollarValue());
+        json.writeStringField("size", fact.getSize());
+        writeInteger(json, "month", fact.getMonth());
+        writeInteger(json, "year", fact.getYear());
+        json.writeEndObject();
+    }
+
+    private long writeCsv(Integer year, Integer month, DimensionSnapshot dimensions, OutputStream target)
+            throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_BYTES);
+        csv.write(CSV_HEADER);
+        long rows = factReader.streamFacts(year, month, fact -> {
+            try {
+                writeCsvRow(csv, fact, dimensions);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        csv.flush();
+        return rows;
+    }
+
+    private void writeCsvRow(Writer csv, FactExportThEntity fact, DimensionSnapshot dimensions) throws IOException {
+        DimCountryEntity country = dimensions.country(fact.getCountryId());
+        DimHs2Entity hs2 = dimensions.hs2(fact.getHs2Id());
+        DimHs4Entity hs4 = dimensions.hs4(fact.getHs4Id());
+
+        csv.write(String.valueOf(fact.getId()));
+        csv.write(',');
+        writeCsvText(csv, country != null ? country.getCountry() : null);
+        csv.write(',');
+        writeCsvText(csv, hs2 != null ? String.valueOf(hs2.getHs2dg()) : null);
+        csv.write(',');
+        writeCsvText(csv, hs2 != null ? hs2.getDescription() : null);
+        csv.write(',');
+        writeCsvText(csv, hs4 != null ? String.valueOf(hs4.getHs4dg()) : null);
+        csv.write(',');
+        writeCsvText(csv, hs4 != null ? hs4.getDescription() : null);
+        csv.write(',');
+        writeCsvText(csv, fact.getThaipValue() != null ? fact.getThaipValue().toPlainString() : null);
+        csv.write(',');
+        writeCsvText(csv, fact.getDollarValue() != null ? fact.getDollarValue().toPlainString() : null);
+        csv.write(',');
+        writeCsvText(csv, fact.getSize());
+        csv.write(',');
+        writeCsvText(csv, fact.getMonth() != null ? fact.getMonth().toString() : null);
+        csv.write(',');
+        writeCsvText(csv, fact.getYear() != null ? fact.getYear().toString() : null);
+        csv.write('\n');
+    }
+
+    // RFC 4180: quote when the value has a separator, quote or line break; null is an empty field
+    private void writeCsvText(Writer csv, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    private void writeDecimal(JsonGenerator json, String field, BigDecimal value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+
+    private void writeInteger(JsonGenerator json, String field, Integer value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// export_th row -> fact row, the per-row transform shared by every ETL mode
+// (benchmarked by TransformBenchmark)
+@Component
+@RequiredArgsConstructor
+public class FactMapper {
+    private final ValueParser valueParser;
+
+    public FactExportThEntity map(ExportThRow source, DimensionLookup dimensions) {
+        FactExportThEntity fact = new FactExportThEntity();
+
+        // Primitive id lookups; 0 means the value has no dimension row
+        long countryId = dimensions.countryId(source.getCountry());
+        long hs2Id = dimensions.hs2Id(source.getHs2dg());
+        long hs4Id = dimensions.hs4Id(source.getHs4dg());
+
+        // Set IDs instead of entity references
+        fact.setCountryId(countryId != 0 ? countryId : null);
+        fact.setHs2Id(hs2Id != 0 ? hs2Id : null);
+        fact.setHs4Id(hs4Id != 0 ? hs4Id : null);
+
+        // Set other fields
+        fact.setThaipValue(valueParser.parse(source.getThaipValue()));
+        fact.setDollarValue(valueParser.parse(source.getDollarValue()));
+        fact.setSize(source.getSize());
+        fact.setMonth(Integer.parseInt(source.getMonth()));
+        fact.setYear(Integer.parseInt(source.getYear()));
+
+        return fact;
+    }
+}
@@ -0,0 +1,13 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactSinkType;
+
+import java.util.List;
+
+// Writes one batch of transformed facts to fact_export_th
+public interface FactSink {
+    FactSinkType getType();
+
+    void write(List<FactExportThEntity> facts);
+}
@@ -0,0 +1,49 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.config.EtlProperties;
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactSinkType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Picks the fact sink configured with etl.fact-sink; every write is timed as the load stage
+@Component
+@RequiredArgsConstructor
+public class FactSinkSelector {
+    private final List<FactSink> sinks;
+    private final EtlProperties etlProperties;
+    private final EtlMetrics metrics;
+
+    public FactSink get() {
+        return get(etlProperties.getFactSink());
+    }
+
+    public FactSink get(FactSinkType type) {
+        return sinks.stream()
+                .filter(sink -> sink.getType() == type)
+                .findFirst()
+                .map(this::timed)
+                .orElseThrow(() -> new ETLException("No fact sink of type " + type));
+    }
+
+    private FactSink timed(FactSink sink) {
+        return new FactSink() {
+            @Override
+            public FactSinkType getType() {
+                return sink.getType();
+            }
+
+            @Override
+            public void write(List<FactExportThEntity> facts) {
+                long start = System.nanoTime();
+                sink.write(facts);
+                long elapsed = System.nanoTime() - start;
+                metrics.recordBatch(sink.getType(), facts.size(), elapsed);
+                metrics.recordStage(EtlMetrics.LOAD, facts.size(), elapsed);
+            }
+        };
+    }
+}
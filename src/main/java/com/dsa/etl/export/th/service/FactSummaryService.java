@@ -0,0 +1,67 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.dto.FactSummaryProjection;
+import com.dsa.etl.export.th.repository.FactAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Summary queries for FactController: the in-memory cube once it is loaded,
+// the aggregate tables before that
+@Service
+@RequiredArgsConstructor
+public class FactSummaryService {
+    private final FactCube cube;
+    private final FactAggregateRepository aggregateRepo;
+
+    public BigDecimal sumThaipValueByYear(Integer year) {
+        return cube.isLoaded() ? cube.sumThaipValue(year, null) : aggregateRepo.sumThaipValueByYear(year);
+    }
+
+    public BigDecimal sumDollarValueByYear(Integer year) {
+        return cube.isLoaded() ? cube.sumDollarValue(year, null) : aggregateRepo.sumDollarValueByYear(year);
+    }
+
+    public long countByYear(Integer year) {
+        return cube.isLoaded() ? cube.count(year, null) : aggregateRepo.countByYear(year);
+    }
+
+    public BigDecimal sumThaipValueByYearAndMonth(Integer year, Integer month) {
+        return cube.isLoaded()
+                ? cube.sumThaipValue(year, month)
+                : aggregateRepo.sumThaipValueByYearAndMonth(year, month);
+    }
+
+    public BigDecimal sumDollarValueByYearAndMonth(Integer year, Integer month) {
+        return cube.isLoaded()
+                ? cube.sumDollarValue(year, month)
+                : aggregateRepo.sumDollarValueByYearAndMonth(year, month);
+    }
+
+    public long countByYearAndMonth(Integer year, Integer month) {
+        return cube.isLoaded() ? cube.count(year, month) : aggregateRepo.countByYearAndMonth(year, month);
+    }
+
+    public List<Map<String, Object>> findTopCountriesByValue(Integer year, int limit) {
+        return cube.isLoaded()
+                ? cube.findTopCountriesByValue(year, limit)
+                : aggregateRepo.findTopCountriesByValue(year, limit);
+    }
+
+    public List<Map<String, Object>> findTopHS2ByValue(Integer year, int limit) {
+        return cube.isLoaded() ? cube.findTopHS2ByValue(year, limit) : aggregateRepo.findTopHS2ByValue(year, limit);
+    }
+
+    public List<FactSummaryProjection> findFactSummaryByYear(Integer year, int limit) {
+        return cube.isLoaded() ? cube.findFactSummary(year, null, limit) : aggregateRepo.findFactSummaryByYear(year, limit);
+    }
+
+    public List<FactSummaryProjection> findFactSummaryByYearAndMonth(Integer year, Integer month, int limit) {
+        return cube.isLoaded()
+                ? cube.findFactSummary(year, month, limit)
+                : aggregateRepo.findFactSummaryByYearAndMonth(year, month, limit);
+    }
+}
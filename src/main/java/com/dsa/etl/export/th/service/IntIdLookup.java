@@ -0,0 +1,78 @@
+package com.dsa.etl.export.th.service;
+
+import java.util.Arrays;
+
+// int code -> surrogate id with no boxing; 0 means absent (ids start at 1).
+// Codes below 65536 (HS2 < 100, HS4 < 10000) index a plain long[]; anything
+// else goes to a small open-addressing table. Reads are safe from many threads
+// once writes have stopped; writes are single-threaded.
+final class IntIdLookup {
+    private static final int MAX_DENSE_KEY = 1 << 16;
+
+    private long[] dense = new long[128];
+    private int[] sparseKeys = new int[16];
+    private long[] sparseIds = new long[16];
+    private int sparseSize;
+
+    long get(int key) {
+        if (key >= 0 && key < MAX_DENSE_KEY) {
+            return key < dense.length ? dense[key] : 0;
+        }
+        int mask = sparseKeys.length - 1;
+        for (int i = mix(key) & mask; sparseIds[i] != 0; i = (i + 1) & mask) {
+            if (sparseKeys[i] == key) {
+                return sparseIds[i];
+            }
+        }
+        return 0;
+    }
+
+    void put(int key, long id) {
+        if (key >= 0 && key < MAX_DENSE_KEY) {
+            if (key >= dense.length) {
+                dense = Arrays.copyOf(dense, Math.min(MAX_DENSE_KEY, Integer.highestOneBit(key) << 1));
+            }
+            dense[key] = id;
+            return;
+        }
+        if ((sparseSize + 1) * 2 > sparseKeys.length) {
+            resizeSparse();
+        }
+        if (insertSparse(sparseKeys, sparseIds, key, id)) {
+            sparseSize++;
+        }
+    }
+
+    private void resizeSparse() {
+        int[] keys = new int[sparseKeys.length * 2];
+        long[] ids = new long[keys.length];
+        for (int i = 0; i < sparseKeys.length; i++) {
+            if (sparseIds[i] != 0) {
+                insertSparse(keys, ids, sparseKeys[i], sparseIds[i]);
+            }
+        }
+        sparseKeys = keys;
+        sparseIds = ids;
+    }
+
+    // Returns true when the key was new
+    private static boolean insertSparse(int[] keys, long[] ids, int key, long id) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (ids[i] != 0) {
+            if (keys[i] == key) {
+                ids[i] = id;
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        return true;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,112 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactSinkType;
+import com.dsa.etl.export.th.model.enums.IdSequence;
+import com.dsa.etl.export.th.repository.IdGeneratorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+// Inserts fact batches with a plain PreparedStatement batch. Unlike saveAll nothing
+// becomes managed: no persistence context grows during the load, no isNew check or
+// dirty checking per row, and the facts can be collected as soon as the batch is sent.
+// rewriteBatchedStatements=true on the JDBC url turns each executeBatch into
+// multi-row INSERTs.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcBatchFactSink implements FactSink {
+    private static final String INSERT_SQL = "INSERT INTO fact_export_th " +
+            "(id, country_id, hs2_id, hs4_id, thaip_value, dollar_value, size, month, year) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Rows per executeBatch, keeps each rewritten INSERT well under max_allowed_packet
+    private static final int STATEMENT_BATCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final IdGeneratorRepository idGenerator;
+
+    @Override
+    public FactSinkType getType() {
+        return FactSinkType.JDBC_BATCH;
+    }
+
+    @Override
+    public void write(List<FactExportThEntity> facts) {
+        if (facts.isEmpty()) {
+            return;
+        }
+
+        // Same id block reservation as LOAD DATA, so the pooled Hibernate ids never collide
+        long firstId = idGenerator.reserve(IdSequence.FACT, facts.size());
+
+        long start = System.nanoTime();
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < facts.size(); i++) {
+                FactExportThEntity fact = facts.get(i);
+                fact.setId(firstId + i);
+                stmt.setLong(1, fact.getId());
+                setLong(stmt, 2, fact.getCountryId());
+                setLong(stmt, 3, fact.getHs2Id());
+                setLong(stmt, 4, fact.getHs4Id());
+                setDecimal(stmt, 5, fact.getThaipValue());
+                setDecimal(stmt, 6, fact.getDollarValue());
+                stmt.setString(7, fact.getSize());
+                setInt(stmt, 8, fact.getMonth());
+                setInt(stmt, 9, fact.getYear());
+                stmt.addBatch();
+                if ((i + 1) % STATEMENT_BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            if (!DataSourceUtils.isConnectionTransactional(conn, dataSource) && !conn.getAutoCommit()) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            log.error("JDBC batch insert failed for {} rows", facts.size(), e);
+            throw new ETLException("JDBC batch insert failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+
+        long nanos = System.nanoTime() - start;
+        log.debug("JDBC batch wrote {} rows in {} ms ({} rows/sec)",
+                facts.size(), nanos / 1_000_000, Math.round(facts.size() * 1e9 / Math.max(nanos, 1)));
+    }
+
+    private static void setLong(PreparedStatement stmt, int index, Long value) throws SQLException {
+        if (value != null) {
+            stmt.setLong(index, value);
+        } else {
+            stmt.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static void setInt(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            stmt.setInt(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static void setDecimal(PreparedStatement stmt, int index, BigDecimal value) throws SQLException {
+        if (value != null) {
+            stmt.setBigDecimal(index, value);
+        } else {
+            stmt.setNull(index, Types.DECIMAL);
+        }
+    }
+}
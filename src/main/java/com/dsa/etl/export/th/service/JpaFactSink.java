@@ -0,0 +1,31 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactSinkType;
+import com.dsa.etl.export.th.repository.FactExportThRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JpaFactSink implements FactSink {
+    private final FactExportThRepository factRepo;
+
+    @Override
+    public FactSinkType getType() {
+        return FactSinkType.JPA;
+    }
+
+    @Override
+    public void write(List<FactExportThEntity> facts) {
+        long start = System.nanoTime();
+        factRepo.saveAll(facts);
+        long nanos = System.nanoTime() - start;
+        log.debug("saveAll wrote {} rows in {} ms ({} rows/sec)",
+                facts.size(), nanos / 1_000_000, Math.round(facts.size() * 1e9 / Math.max(nanos, 1)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.dsa.etl.export.th.service;
+
+// String key -> surrogate id without boxing; 0 means absent (ids start at 1).
+// Open addressing with linear probing over parallel arrays. String caches its
+// hashCode, so a lookup allocates nothing. Same threading rules as IntIdLookup.
+final class StringIdLookup {
+    private String[] keys = new String[64];
+    private long[] ids = new long[64];
+    private int size;
+
+    long get(String key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key.hashCode()) & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return ids[i];
+            }
+        }
+        return 0;
+    }
+
+    void put(String key, long id) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        if (insert(keys, ids, key, id)) {
+            size++;
+        }
+    }
+
+    private void resize() {
+        String[] newKeys = new String[keys.length * 2];
+        long[] newIds = new long[newKeys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                insert(newKeys, newIds, keys[i], ids[i]);
+            }
+        }
+        keys = newKeys;
+        ids = newIds;
+    }
+
+    // Returns true when the key was new
+    private static boolean insert(String[] keys, long[] ids, String key, long id) {
+        int mask = keys.length - 1;
+        int i = mix(key.hashCode()) & mask;
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                ids[i] = id;
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        return true;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,147 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.dto.ExportThRow;
+import com.dsa.etl.export.th.repository.ExportThBulkWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+// Fills export_th with rows shaped like the customs data: a few countries and HS chapters
+// carry most of the records (Zipf skew), years are Buddhist era, and thaip_value /
+// dollar_value come in the same mix of formats as the source ("1,234,567.89", "25,000",
+// padded, blank, null). The same seed always produces the same rows. Bench profile only.
+@Service
+@Profile("bench")
+@Slf4j
+@RequiredArgsConstructor
+public class SyntheticExportThGenerator {
+    private static final int BATCH_SIZE = 10_000;
+    private static final double BAHT_PER_DOLLAR = 33.5;
+
+    private static final String[] COUNTRIES = {
+            "สหรัฐอเมริกา", "จีน", "ญี่ปุ่น", "เวียดนาม", "มาเลเซีย", "ออสเตรเลีย", "อินโดนีเซีย", "ฮ่องกง",
+            "สิงคโปร์", "อินเดีย", "ฟิลิปปินส์", "เกาหลีใต้", "กัมพูชา", "สปป.ลาว", "เมียนมา", "ไต้หวัน",
+            "เนเธอร์แลนด์", "เยอรมนี", "สหราชอาณาจักร", "สหรัฐอาหรับเอมิเรตส์", "ซาอุดีอาระเบีย", "แคนาดา",
+            "เม็กซิโก", "บราซิล", "แอฟริกาใต้", "ฝรั่งเศส", "อิตาลี", "เบลเยียม", "นิวซีแลนด์", "บังกลาเทศ",
+            "ปากีสถาน", "ศรีลังกา", "ตุรกี", "อิสราเอล", "สเปน", "โปแลนด์", "สวิตเซอร์แลนด์", "สวีเดน",
+            "รัสเซีย", "อียิปต์", "ไนจีเรีย", "เคนยา", "ชิลี", "เปรู", "อาร์เจนตินา", "โคลอมเบีย",
+            "กาตาร์", "คูเวต", "โอมาน", "บรูไน"};
+    // HS chapters in rough order of Thai export volume; the rest follow in code order
+    private static final int[] LEADING_HS2 = {85, 84, 87, 40, 39, 71, 16, 10, 17, 27, 29, 73, 94, 90, 8, 3,
+            19, 21, 44, 72, 76, 61, 62, 64, 48, 33, 38, 11, 7, 20};
+    private static final int HS4_PER_HS2 = 20;
+
+    private final ExportThBulkWriter writer;
+
+    public long generate(long rows, List<Integer> years, long seed) {
+        log.info("Generating {} synthetic export_th rows over years {} (seed {})", rows, years, seed);
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        Zipf countries = new Zipf(COUNTRIES.length, 1.1);
+        int[] hs2Codes = hs2Codes();
+        Zipf hs2 = new Zipf(hs2Codes.length, 1.0);
+        Zipf hs4 = new Zipf(HS4_PER_HS2, 1.2);
+
+        writer.truncate();
+        List<ExportThRow> batch = new ArrayList<>(BATCH_SIZE);
+        long id = 0;
+        // Rows arrive year by year, as the source is imported
+        for (int y = 0; y < years.size(); y++) {
+            String year = String.valueOf(years.get(y));
+            long yearRows = rows / years.size() + (y < rows % years.size() ? 1 : 0);
+            for (long i = 0; i < yearRows; i++) {
+                int hs2dg = hs2Codes[hs2.sample(random)];
+                int hs4dg = hs2dg * 100 + 1 + hs4.sample(random);
+                long satang = satang(random);
+                batch.add(new ExportThRow(++id,
+                        COUNTRIES[countries.sample(random)],
+                        hs2dg, "สินค้าตอนที่ " + hs2dg,
+                        hs4dg, "สินค้าประเภทที่ " + hs4dg,
+                        messyValue(satang, random),
+                        messyValue(Math.round(satang / BAHT_PER_DOLLAR), random),
+                        size(satang),
+                        String.valueOf(1 + random.nextInt(12)),
+                        year));
+                if (batch.size() == BATCH_SIZE) {
+                    writer.insert(batch);
+                    batch.clear();
+                    if (id % 1_000_000 == 0) {
+                        log.info("Generated {} rows", id);
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.insert(batch);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} rows in {} ms ({} rows/sec)", id, elapsedMs, elapsedMs > 0 ? id * 1000 / elapsedMs : id);
+        return id;
+    }
+
+    private static int[] hs2Codes() {
+        int[] rest = IntStream.rangeClosed(1, 97)
+                .filter(code -> code != 77 && Arrays.stream(LEADING_HS2).noneMatch(leading -> leading == code))
+                .toArray();
+        int[] codes = Arrays.copyOf(LEADING_HS2, LEADING_HS2.length + rest.length);
+        System.arraycopy(rest, 0, codes, LEADING_HS2.length, rest.length);
+        return codes;
+    }
+
+    // Log-normal shipment values: median around 12,000 baht with a long tail into the billions
+    private static long satang(Random random) {
+        return Math.max(1, Math.min(1_000_000_000_000L, Math.round(Math.exp(14 + random.nextGaussian() * 2.2))));
+    }
+
+    private static String size(long satang) {
+        long baht = satang / 100;
+        return baht < 100_000 ? "SMALL" : baht < 10_000_000 ? "MEDIUM" : "LARGE";
+    }
+
+    private static String messyValue(long satang, Random random) {
+        int shape = random.nextInt(100);
+        if (shape < 70) {
+            return String.format(Locale.US, "%,d.%02d", satang / 100, satang % 100);
+        } else if (shape < 80) {
+            return String.format(Locale.US, "%d.%02d", satang / 100, satang % 100);
+        } else if (shape < 88) {
+            return String.format(Locale.US, "%,d", satang / 100);
+        } else if (shape < 93) {
+            return String.format(Locale.US, " %,d.%02d ", satang / 100, satang % 100);
+        } else if (shape < 97) {
+            return "0.00";
+        } else if (shape < 99) {
+            return "";
+        }
+        return null;
+    }
+
+    // Ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int rank = 0; rank < n; rank++) {
+                total += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = total;
+            }
+        }
+
+        int sample(Random random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.dsa.etl.export.th.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Parses thaip_value / dollar_value strings such as "1,234,567.89" in a single scan.
+// Same result as new BigDecimal(value.replaceAll("[^\\d.]", "")) with ZERO for
+// blank or unparseable input, but without the regex and intermediate Strings.
+@Component
+public class ValueParser {
+    // Up to 18 digits always fit in a long
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public BigDecimal parse(String value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean dot = false;
+
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+                if (significantDigits > 0 || c != '0') {
+                    significantDigits++;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+            } else if (c == '.') {
+                if (dot) {
+                    return BigDecimal.ZERO;  // "1.2.3" is not a number
+                }
+                dot = true;
+            }
+            // anything else (thousands separators, spaces, currency signs) is skipped
+        }
+
+        if (digits == 0) {
+            return BigDecimal.ZERO;
+        }
+        if (significantDigits > MAX_LONG_DIGITS) {
+            return parseLarge(value);
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    // Value scaled to a fixed number of decimals (HALF_UP), e.g. scale 2 gives satang / cents
+    public long parseScaled(String value, int targetScale) {
+        if (value == null) {
+            return 0;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        int droppedDigits = 0;
+        boolean dot = false;
+        boolean roundUp = false;
+
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (dot) {
+                    if (scale == targetScale) {
+                        // the first dropped decimal decides the rounding
+                        if (droppedDigits++ == 0) {
+                            roundUp = c >= '5';
+                        }
+                        continue;
+                    }
+                    scale++;
+                }
+                if (significantDigits > 0 || c != '0') {
+                    significantDigits++;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+            } else if (c == '.') {
+                if (dot) {
+                    return 0;
+                }
+                dot = true;
+            }
+        }
+
+        if (digits == 0) {
+            return 0;
+        }
+        if (significantDigits + targetScale - scale > MAX_LONG_DIGITS) {
+            return parseLarge(value).setScale(targetScale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+        long result = unscaled * POWERS_OF_TEN[targetScale - scale];
+        return roundUp ? result + 1 : result;
+    }
+
+    // Rare path for more than 18 significant digits
+    private BigDecimal parseLarge(String value) {
+        char[] buffer = new char[value.length()];
+        int length = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.') {
+                buffer[length++] = c;
+            }
+        }
+        return new BigDecimal(buffer, 0, length);
+    }
+}
@@ -0,0 +1,115 @@
+package com.dsa.etl.export.th.controller;
+
+import com.dsa.etl.export.th.model.dto.FactCursor;
+import com.dsa.etl.export.th.model.dto.FactCursorPage;
+import com.dsa.etl.export.th.model.dto.FactDetailResponse;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.repository.FactExportThRepository;
+import com.dsa.etl.export.th.service.DimensionCache;
+import com.dsa.etl.export.th.service.DimensionSnapshot;
+import com.dsa.etl.export.th.service.FactExportService;
+import com.dsa.etl.export.th.service.FactSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FactControllerCursorTest {
+    private FactExportThRepository factRepo;
+    private FactController controller;
+
+    @BeforeEach
+    void setUp() {
+        factRepo = mock(FactExportThRepository.class);
+        DimensionCache dimensionCache = mock(DimensionCache.class);
+        when(dimensionCache.current()).thenReturn(mock(DimensionSnapshot.class));
+        controller = new FactController(factRepo, dimensionCache, mock(FactSummaryService.class),
+                mock(FactExportService.class));
+    }
+
+    private static List<FactExportThEntity> facts(long fromId, int count) {
+        return LongStream.range(fromId, fromId + count)
+                .mapToObj(id -> FactExportThEntity.builder().id(id).year(2567).month(1).build())
+                .toList();
+    }
+
+    private void repoReturns(List<FactExportThEntity> facts) {
+        when(factRepo.findFactsAfter(any(), any(), anyLong(), any())).thenReturn(facts);
+    }
+
+    @Test
+    void asksForOneRowMoreThanThePage() {
+        repoReturns(List.of());
+        controller.getFactsByCursor(10, 2567, 1, null);
+        verify(factRepo).findFactsAfter(eq(2567), eq(1), eq(0L), eq(PageRequest.of(0, 11)));
+    }
+
+    @Test
+    void extraRowMeansNextPageAndIsNotReturned() {
+        repoReturns(facts(1, 11));
+
+        FactCursorPage page = controller.getFactsByCursor(10, 2567, 1, null).getBody();
+
+        assertTrue(page.isHasNext());
+        assertEquals(10, page.getContent().size());
+        assertEquals(10L, page.getContent().get(9).getFactId());
+        assertEquals(new FactCursor(10, 2567, 1), FactCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void fullPageWithoutExtraRowIsTheLast() {
+        repoReturns(facts(1, 10));
+
+        FactCursorPage page = controller.getFactsByCursor(10, 2567, 1, null).getBody();
+
+        assertFalse(page.isHasNext());
+        assertEquals(10, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shortPageIsTheLast() {
+        repoReturns(facts(1, 3));
+
+        FactCursorPage page = controller.getFactsByCursor(10, null, null, null).getBody();
+
+        assertFalse(page.isHasNext());
+        assertEquals(List.of(1L, 2L, 3L), page.getContent().stream().map(FactDetailResponse::getFactId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void continuationKeepsTheFiltersOfTheToken() {
+        repoReturns(facts(51, 6));
+        String token = new FactCursor(50, 2566, 3).encode();
+
+        // Filters on a continuation request are ignored in favour of the token's
+        FactCursorPage page = controller.getFactsByCursor(5, 2567, 12, token).getBody();
+
+        verify(factRepo).findFactsAfter(eq(2566), eq(3), eq(50L), eq(PageRequest.of(0, 6)));
+        assertTrue(page.isHasNext());
+        assertEquals(new FactCursor(55, 2566, 3), FactCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        repoReturns(List.of());
+        controller.getFactsByCursor(0, null, null, null);
+        controller.getFactsByCursor(5000, null, null, null);
+        verify(factRepo).findFactsAfter(any(), any(), eq(0L), eq(PageRequest.of(0, 2)));
+        verify(factRepo).findFactsAfter(any(), any(), eq(0L), eq(PageRequest.of(0, 1001)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.dsa.etl.export.th.model.dto;
+
+import com.dsa.etl.export.th.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FactCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void roundTripsWithFilters() {
+        FactCursor cursor = new FactCursor(123_456_789L, 2567, 12);
+        assertEquals(cursor, FactCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripsWithoutFilters() {
+        FactCursor cursor = new FactCursor(0, null, null);
+        FactCursor decoded = FactCursor.decode(cursor.encode());
+        assertEquals(cursor, decoded);
+        assertEquals(0, decoded.getAfterId());
+    }
+
+    @Test
+    void roundTripsYearOnly() {
+        FactCursor cursor = new FactCursor(Long.MAX_VALUE, 2566, null);
+        assertEquals(cursor, FactCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new FactCursor(Long.MAX_VALUE, 2567, 12).encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "%%%", "abc$"})
+    void rejectsBadBase64(String token) {
+        assertThrows(InvalidCursorException.class, () -> FactCursor.decode(token));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "1", "1:2567", "1:2567:12:4", "x:2567:12", ":2567:12", "1:y:12", "1:2567:z",
+            "1.5::", "99999999999999999999::"})
+    void rejectsMalformedContent(String raw) {
+        String token = token(raw);
+        assertThrows(InvalidCursorException.class, () -> FactCursor.decode(token));
+    }
+}
@@ -0,0 +1,135 @@
+package com.dsa.etl.export.th.repository;
+
+import com.dsa.etl.export.th.exception.ETLException;
+import com.dsa.etl.export.th.model.enums.IdSequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdGeneratorRepositoryTest {
+    private static final IdSequence SEQUENCE = IdSequence.FACT;
+    private static final int ALLOCATION = SEQUENCE.getAllocationSize();
+
+    // gen_value of the sequence's id_generator row
+    private final AtomicLong genValue = new AtomicLong();
+    private Connection conn;
+    private ResultSet row;
+    private IdGeneratorRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = mock(Connection.class);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.getAutoCommit()).thenReturn(true);
+
+        PreparedStatement select = mock(PreparedStatement.class);
+        row = mock(ResultSet.class);
+        when(conn.prepareStatement(startsWith("SELECT gen_value"))).thenReturn(select);
+        when(select.executeQuery()).thenReturn(row);
+        when(row.next()).thenReturn(true);
+        when(row.getLong(1)).thenAnswer(invocation -> genValue.get());
+
+        PreparedStatement update = mock(PreparedStatement.class);
+        AtomicLong pending = new AtomicLong();
+        when(conn.prepareStatement(startsWith("UPDATE id_generator"))).thenReturn(update);
+        doAnswer(invocation -> {
+            pending.set(invocation.getArgument(1));
+            return null;
+        }).when(update).setLong(eq(1), anyLong());
+        when(update.executeUpdate()).thenAnswer(invocation -> {
+            genValue.set(pending.get());
+            return 1;
+        });
+
+        repository = new IdGeneratorRepository(dataSource);
+    }
+
+    // What Hibernate's pooled optimizer does: read V, store V + allocationSize, own (V - allocationSize, V]
+    private long[] hibernateBlock() {
+        long value = genValue.getAndAdd(ALLOCATION);
+        return new long[]{value - ALLOCATION + 1, value};
+    }
+
+    private long[] reserveBlock(int count) {
+        long first = repository.reserve(SEQUENCE, count);
+        return new long[]{first, first + count - 1};
+    }
+
+    @Test
+    void reservesRightAfterTheLastHibernateBlock() {
+        // Seeded for an empty table: MAX(id) 0 + allocationSize + 1
+        genValue.set(ALLOCATION + 1L);
+
+        assertEquals(2, repository.reserve(SEQUENCE, 500));
+        assertEquals(ALLOCATION + 501L, genValue.get());
+        assertEquals(502, repository.reserve(SEQUENCE, 10));
+        assertEquals(ALLOCATION + 511L, genValue.get());
+    }
+
+    @Test
+    void reservedAndHibernateBlocksNeverOverlap() {
+        genValue.set(ALLOCATION + 1L);
+        List<long[]> blocks = new ArrayList<>();
+        blocks.add(hibernateBlock());
+        blocks.add(reserveBlock(1));
+        blocks.add(reserveBlock(ALLOCATION));
+        blocks.add(hibernateBlock());
+        blocks.add(hibernateBlock());
+        blocks.add(reserveBlock(3 * ALLOCATION + 7));
+        blocks.add(hibernateBlock());
+        blocks.add(reserveBlock(42));
+
+        for (int i = 0; i < blocks.size(); i++) {
+            assertTrue(blocks.get(i)[0] <= blocks.get(i)[1]);
+            for (int j = i + 1; j < blocks.size(); j++) {
+                long[] a = blocks.get(i);
+                long[] b = blocks.get(j);
+                assertFalse(a[0] <= b[1] && b[0] <= a[1],
+                        "blocks " + i + " [" + a[0] + ", " + a[1] + "] and " + j + " [" + b[0] + ", " + b[1] + "]");
+            }
+        }
+    }
+
+    @Test
+    void commitsAndRestoresAutoCommit() throws SQLException {
+        genValue.set(ALLOCATION + 1L);
+        repository.reserve(SEQUENCE, 5);
+        verify(conn).setAutoCommit(false);
+        verify(conn).commit();
+        verify(conn).setAutoCommit(true);
+        verify(conn, never()).rollback();
+    }
+
+    @Test
+    void missingGeneratorRowRollsBack() throws SQLException {
+        when(row.next()).thenReturn(false);
+
+        assertThrows(ETLException.class, () -> repository.reserve(SEQUENCE, 5));
+        verify(conn).rollback();
+        verify(conn, never()).prepareStatement(startsWith("UPDATE"));
+        verify(conn, never()).commit();
+        verify(conn).setAutoCommit(true);
+    }
+}
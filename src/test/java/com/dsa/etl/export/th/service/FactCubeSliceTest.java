@@ -0,0 +1,163 @@
+package com.dsa.etl.export.th.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FactCubeSliceTest {
+
+    // month, country, hs2, hs4, thaip cents, dollar cents, rows
+    private static FactCubeSlice smallSlice() {
+        return FactCubeSlice.builder(2567)
+                .add(1, 10L, 85L, 8501L, 100, 3, 1)
+                .add(1, 20L, 85L, 8502L, 250, 7, 2)
+                .add(1, 10L, 84L, 8401L, 50, 1, 1)
+                .add(3, 10L, 85L, 8501L, 1_000, 30, 4)
+                .add(3, null, 84L, null, 5, 0, 1)
+                .add(12, 20L, null, null, 7, 2, 1)
+                .build();
+    }
+
+    private static Map<Long, Long> countsById(FactCubeSlice.Groups groups, IntFunction<Long> id) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (int group = 0; group < groups.size(); group++) {
+            if (groups.count(group) > 0) {
+                counts.put(id.apply(group), groups.count(group));
+            }
+        }
+        return counts;
+    }
+
+    @Test
+    void totalsOfTheYearAndOfSingleMonths() {
+        FactCubeSlice slice = smallSlice();
+
+        FactCubeSlice.Groups year = slice.totals(0);
+        assertEquals(1, year.size());
+        assertEquals(10, year.count(0));
+        assertEquals(1_412, year.thaipCents(0));
+        assertEquals(43, year.dollarCents(0));
+        assertEquals(new BigDecimal("14.12"), year.thaipValue(0));
+        assertEquals(new BigDecimal("0.43"), year.dollarValue(0));
+
+        assertEquals(4, slice.totals(1).count(0));
+        assertEquals(400, slice.totals(1).thaipCents(0));
+        assertEquals(5, slice.totals(3).count(0));
+        assertEquals(1, slice.totals(12).count(0));
+        assertEquals(7, slice.totals(12).thaipCents(0));
+    }
+
+    @Test
+    void monthsWithoutRowsAreEmpty() {
+        FactCubeSlice slice = smallSlice();
+        // before the first, between two and after the last month present
+        for (int month : new int[]{2, 4, 11}) {
+            assertEquals(0, slice.totals(month).count(0), "month " + month);
+            assertEquals(0, slice.sumByCountry(month).count(1), "month " + month);
+        }
+        FactCubeSlice late = FactCubeSlice.builder(2567).add(6, 1L, 1L, 1L, 1, 1, 1).build();
+        assertEquals(0, late.totals(1).count(0));
+        assertEquals(1, late.totals(6).count(0));
+        assertEquals(0, late.totals(12).count(0));
+    }
+
+    @Test
+    void sumByCountryMapsGroupsBackToIds() {
+        FactCubeSlice slice = smallSlice();
+
+        FactCubeSlice.Groups groups = slice.sumByCountry(0);
+        assertEquals(3, groups.size());  // no-country bucket + 2 countries
+        assertNull(slice.countryId(0));
+
+        Map<Long, Long> counts = countsById(groups, slice::countryId);
+        Map<Long, Long> expected = new HashMap<>();
+        expected.put(10L, 6L);
+        expected.put(20L, 3L);
+        expected.put(null, 1L);
+        assertEquals(expected, counts);
+
+        assertEquals(Map.of(10L, 2L, 20L, 2L), countsById(slice.sumByCountry(1), slice::countryId));
+    }
+
+    @Test
+    void sumByHs2AndHs4() {
+        FactCubeSlice slice = smallSlice();
+
+        Map<Long, Long> hs2 = new HashMap<>(Map.of(85L, 7L, 84L, 2L));
+        hs2.put(null, 1L);
+        assertEquals(hs2, countsById(slice.sumByHs2(0), slice::hs2Id));
+
+        Map<Long, Long> hs4 = new HashMap<>(Map.of(8501L, 4L));
+        hs4.put(null, 1L);
+        assertEquals(hs4, countsById(slice.sumByHs4(3), slice::hs4Id));
+    }
+
+    @Test
+    void sumByCountryHs2UsesTheDocumentedGroupIndex() {
+        FactCubeSlice slice = smallSlice();
+        int stride = slice.getHs2Cardinality() + 1;
+
+        FactCubeSlice.Groups groups = slice.sumByCountryHs2(0);
+        assertEquals((2 + 1) * stride, groups.size());
+
+        Map<String, Long> counts = new HashMap<>();
+        for (int group = 0; group < groups.size(); group++) {
+            if (groups.count(group) > 0) {
+                counts.put(slice.countryId(group / stride) + "/" + slice.hs2Id(group % stride), groups.count(group));
+            }
+        }
+        assertEquals(Map.of(
+                "10/85", 5L,
+                "10/84", 1L,
+                "20/85", 2L,
+                "20/null", 1L,
+                "null/84", 1L), counts);
+    }
+
+    // More rows than one scan segment, so partial sums of parallel segments are merged
+    @Test
+    void largeSliceMatchesPlainSums() {
+        FactCubeSlice.Builder builder = FactCubeSlice.builder(2567);
+        long[] monthCounts = new long[13];
+        long[] monthThaip = new long[13];
+        Map<Long, Long> byCountry = new HashMap<>();
+        int rowsPerMonth = 7_000;
+        for (int month = 1; month <= 12; month++) {
+            for (int i = 0; i < rowsPerMonth; i++) {
+                long country = i % 37;
+                long thaip = (long) month * 1_000 + i;
+                builder.add(month, country, (long) (i % 11), (long) (i % 101), thaip, i, 1 + i % 3);
+                monthCounts[month] += 1 + i % 3;
+                monthThaip[month] += thaip;
+                byCountry.merge(country, (long) (1 + i % 3), Long::sum);
+            }
+        }
+        FactCubeSlice slice = builder.build();
+        assertEquals(12 * rowsPerMonth, slice.getSize());
+
+        long yearCount = 0;
+        long yearThaip = 0;
+        for (int month = 1; month <= 12; month++) {
+            assertEquals(monthCounts[month], slice.totals(month).count(0), "month " + month);
+            assertEquals(monthThaip[month], slice.totals(month).thaipCents(0), "month " + month);
+            yearCount += monthCounts[month];
+            yearThaip += monthThaip[month];
+        }
+        assertEquals(yearCount, slice.totals(0).count(0));
+        assertEquals(yearThaip, slice.totals(0).thaipCents(0));
+        assertEquals(byCountry, countsById(slice.sumByCountry(0), slice::countryId));
+    }
+
+    @Test
+    void rowsMustBeAddedInMonthOrder() {
+        FactCubeSlice.Builder builder = FactCubeSlice.builder(2567).add(5, 1L, 1L, 1L, 1, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(4, 1L, 1L, 1L, 1, 1, 1));
+    }
+}
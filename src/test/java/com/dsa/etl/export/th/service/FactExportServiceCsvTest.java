@@ -0,0 +1,103 @@
+package com.dsa.etl.export.th.service;
+
+import com.dsa.etl.export.th.model.entities.DimCountryEntity;
+import com.dsa.etl.export.th.model.entities.DimHs2Entity;
+import com.dsa.etl.export.th.model.entities.DimHs4Entity;
+import com.dsa.etl.export.th.model.entities.FactExportThEntity;
+import com.dsa.etl.export.th.model.enums.FactExportFormat;
+import com.dsa.etl.export.th.repository.FactJdbcReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FactExportServiceCsvTest {
+    private static final String HEADER = "factId,country,hs2Code,hs2Description,hs4Code,hs4Description," +
+            "thaipValue,dollarValue,size,month,year\n";
+
+    private static DimHs2Entity hs2(long id, int code, String description) {
+        DimHs2Entity hs2 = new DimHs2Entity();
+        hs2.setHs2Id(id);
+        hs2.setHs2dg(code);
+        hs2.setDescription(description);
+        return hs2;
+    }
+
+    private static DimHs4Entity hs4(long id, int code, String description) {
+        DimHs4Entity hs4 = new DimHs4Entity();
+        hs4.setHs4Id(id);
+        hs4.setHs4dg(code);
+        hs4.setDescription(description);
+        return hs4;
+    }
+
+    // Exports the facts as CSV against a snapshot holding the given dimensions
+    @SuppressWarnings("unchecked")
+    private static String exportCsv(List<FactExportThEntity> facts, DimensionSnapshot dimensions) {
+        FactJdbcReader reader = mock(FactJdbcReader.class);
+        doAnswer(invocation -> {
+            Consumer<FactExportThEntity> consumer = invocation.getArgument(2);
+            facts.forEach(consumer);
+            return (long) facts.size();
+        }).when(reader).streamFacts(eq(2567), isNull(), any(Consumer.class));
+        DimensionCache cache = mock(DimensionCache.class);
+        when(cache.current()).thenReturn(dimensions);
+
+        FactExportService service = new FactExportService(reader, cache, new ObjectMapper());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.export(2567, null, FactExportFormat.CSV, out);
+        assertEquals(facts.size(), rows);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static FactExportThEntity fact(long id, String size) {
+        return FactExportThEntity.builder()
+                .id(id).countryId(1L).hs2Id(2L).hs4Id(3L)
+                .thaipValue(new BigDecimal("1234567.89")).dollarValue(new BigDecimal("1E+2"))
+                .size(size).month(1).year(2567)
+                .build();
+    }
+
+    @Test
+    void quotesSeparatorsQuotesAndLineBreaks() {
+        DimensionSnapshot dimensions = new DimensionSnapshot(1,
+                List.of(hs2(2L, 85, "Machinery, electrical \"parts\"")),
+                List.of(hs4(3L, 8501, "Motors\nand generators")),
+                List.of(new DimCountryEntity(1L, "Korea, Republic of")));
+
+        String csv = exportCsv(List.of(fact(7L, "40\" HC\r\n")), dimensions);
+
+        assertEquals(HEADER +
+                "7,\"Korea, Republic of\",85,\"Machinery, electrical \"\"parts\"\"\",8501," +
+                "\"Motors\nand generators\",1234567.89,100,\"40\"\" HC\r\n\",1,2567\n", csv);
+    }
+
+    @Test
+    void plainValuesAreNotQuotedAndNullsAreEmpty() {
+        DimensionSnapshot dimensions = new DimensionSnapshot(1,
+                List.of(hs2(2L, 85, "Machinery")),
+                List.of(),
+                List.of(new DimCountryEntity(1L, "ญี่ปุ่น")));
+        FactExportThEntity noValues = FactExportThEntity.builder()
+                .id(8L).countryId(1L).hs2Id(2L).year(2567)
+                .build();
+
+        String csv = exportCsv(List.of(fact(7L, "20' GP"), noValues), dimensions);
+
+        assertEquals(HEADER +
+                "7,ญี่ปุ่น,85,Machinery,,,1234567.89,100,20' GP,1,2567\n" +
+                "8,ญี่ปุ่น,85,Machinery,,,,,,,2567\n", csv);
+    }
+}
@@ -0,0 +1,61 @@
+package com.dsa.etl.export.th.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ValueParserTest {
+    private final ValueParser parser = new ValueParser();
+
+    // The regex parsing ValueParser replaced
+    private static BigDecimal regexParse(String value) {
+        if (value == null || value.isBlank()) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            return new BigDecimal(value.replaceAll("[^\\d.]", ""));
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            ".", "5.", ".5", "-", "-5", "+5", "   ", " 12 ",
+            "0", "000", "007", "007.50", "0.000", "00.01",
+            "1.2.3", "1..2", "..", "1,234.5.6",
+            "25,000", "1,234,567.89", "1,2,3", ",", "1,234,", "฿ 1,234.00", "$12.5", "12 345,67",
+            "abc", "n/a", "1e5", "0.995", "0.005", "99.999",
+            "123456789012345678", "1234567890123456789", "12345678901234567890.12", "0.0000000000000000000001"})
+    void parseMatchesRegex(String value) {
+        BigDecimal expected = regexParse(value);
+        BigDecimal actual = parser.parse(value);
+        // equals, not compareTo: the scale must match too
+        assertEquals(expected, actual, () -> "parse(\"" + value + "\")");
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            ".", "5.", ".5", "-", "   ", "007.50", "1.2.3", "25,000", "1,234,567.89",
+            "0.995", "0.994", "0.005", "0.004", "1.005", "99.999", "12.3456",
+            "1234567890123456.789", "12345678901234567.891"})
+    void parseScaledMatchesRegexRoundedHalfUp(String value) {
+        long expected = regexParse(value).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        assertEquals(expected, parser.parseScaled(value, 2), () -> "parseScaled(\"" + value + "\", 2)");
+    }
+
+    @Test
+    void parseScaledToWholeUnits() {
+        assertEquals(3, parser.parseScaled("2.5", 0));
+        assertEquals(2, parser.parseScaled("2.49", 0));
+        assertEquals(1234, parser.parseScaled("1,234", 0));
+    }
+}